@@ -0,0 +1,121 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.benchmark;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.benchmark.BenchmarkContext.BENCHMARK_LAST_NAME;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorDaoBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+
+    @Param({"1000", "100000"})
+    int dataSetSize;
+
+    ConfigurableApplicationContext context;
+    AuthorDao authorDao;
+    TransactionTemplate readOnlyTransaction;
+    Author existingAuthor;
+    Pageable middlePage;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start(dataSetSize);
+        authorDao = context.getBean(AuthorDaoImpl.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        existingAuthor = authorDao.findAuthorByName(BenchmarkContext.authorFirstName(dataSetSize / 2), BENCHMARK_LAST_NAME);
+        middlePage = PageRequest.of(dataSetSize / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getById() {
+        // getById hands out a lazy reference, it has to be initialized inside a transaction
+        return readOnlyTransaction.execute(status -> authorDao.getById(existingAuthor.getId()).getLastName());
+    }
+
+    @Benchmark
+    public Author findAuthorByName() {
+        return authorDao.findAuthorByName(existingAuthor.getFirstName(), existingAuthor.getLastName());
+    }
+
+    @Benchmark
+    public List<Author> findAllAuthorsByLastNamePaged() {
+        return authorDao.findAllAuthorsByLastName(BENCHMARK_LAST_NAME, middlePage);
+    }
+
+    @Benchmark
+    public Author saveNewAuthor() {
+        return authorDao.saveNewAuthor(newAuthor("Saved" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Author updateAuthor() {
+        Author author = new Author();
+        author.setId(existingAuthor.getId());
+        author.setFirstName(existingAuthor.getFirstName());
+        author.setLastName(sequence.incrementAndGet() % 2 == 0 ? BENCHMARK_LAST_NAME : BENCHMARK_LAST_NAME + "-updated");
+        return authorDao.updateAuthor(author);
+    }
+
+    @Benchmark
+    public void deleteAuthorById(AuthorToDelete authorToDelete) {
+        authorDao.deleteAuthorById(authorToDelete.id);
+    }
+
+    private static Author newAuthor(String firstName) {
+        Author author = new Author();
+        author.setFirstName(firstName);
+        author.setLastName("Saved");
+        return author;
+    }
+
+    /**
+     * Inserts the author deleted by the next invocation, outside of the measured time.
+     */
+    @State(Scope.Thread)
+    public static class AuthorToDelete {
+
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void insert(AuthorDaoBenchmark benchmark) {
+            id = benchmark.authorDao.saveNewAuthor(newAuthor("Deleted" + benchmark.sequence.incrementAndGet())).getId();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.benchmark;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.Spring6Application;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application with the h2 profile and tops up the seed data to the requested data set size. Both caches are
+ * switched off, so the benchmarks measure the queries and not the cache.
+ */
+final class BenchmarkContext {
+
+    static final String BENCHMARK_LAST_NAME = "Benchmark";
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(int dataSetSize) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Spring6Application.class)
+            .profiles("h2")
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .properties(
+                "logging.level.root=WARN",
+                "sdjpa.sql-monitoring.enabled=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "sdjpa.second-level-cache.enabled=false",
+                "sdjpa.dao-cache.enabled=false")
+            .run();
+        seedBooks(context.getBean(BookDaoImpl.class), dataSetSize);
+        seedAuthors(context.getBean(AuthorDaoImpl.class), dataSetSize);
+        return context;
+    }
+
+    static String bookTitle(int index) {
+        return "Benchmark Book " + index;
+    }
+
+    static String authorFirstName(int index) {
+        return "First" + index;
+    }
+
+    private static void seedBooks(BookDaoImpl bookDao, int dataSetSize) {
+        for (int from = 0; from < dataSetSize; from += SEED_BATCH_SIZE) {
+            List<Book> books = IntStream.range(from, Math.min(from + SEED_BATCH_SIZE, dataSetSize))
+                .mapToObj(i -> new Book(bookTitle(i), "jmh-isbn-" + i, "Benchmark Press"))
+                .collect(ArrayList::new, List::add, List::addAll);
+            bookDao.saveAllNewBooks(books);
+        }
+    }
+
+    private static void seedAuthors(AuthorDaoImpl authorDao, int dataSetSize) {
+        for (int from = 0; from < dataSetSize; from += SEED_BATCH_SIZE) {
+            List<Author> authors = IntStream.range(from, Math.min(from + SEED_BATCH_SIZE, dataSetSize))
+                .mapToObj(i -> {
+                    Author author = new Author();
+                    author.setFirstName(authorFirstName(i));
+                    author.setLastName(BENCHMARK_LAST_NAME);
+                    return author;
+                })
+                .collect(ArrayList::new, List::add, List::addAll);
+            authorDao.saveAllNewAuthors(authors);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.benchmark;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookDaoBenchmark {
+
+    private static final int PAGE_SIZE = 25;
+
+    @Param({"1000", "100000"})
+    int dataSetSize;
+
+    ConfigurableApplicationContext context;
+    BookDao bookDao;
+    TransactionTemplate readOnlyTransaction;
+    Book existingBook;
+    Pageable middlePage;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start(dataSetSize);
+        bookDao = context.getBean(BookDaoImpl.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        existingBook = bookDao.findBookByTitle(BenchmarkContext.bookTitle(dataSetSize / 2));
+        middlePage = PageRequest.of(dataSetSize / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getById() {
+        // getById hands out a lazy reference, it has to be initialized inside a transaction
+        return readOnlyTransaction.execute(status -> bookDao.getById(existingBook.getId()).getTitle());
+    }
+
+    @Benchmark
+    public Book findBookByTitle() {
+        return bookDao.findBookByTitle(existingBook.getTitle());
+    }
+
+    @Benchmark
+    public List<Book> findAllBooksPaged() {
+        return bookDao.findAllBooks(middlePage);
+    }
+
+    @Benchmark
+    public Book saveNewBook() {
+        long next = sequence.incrementAndGet();
+        return bookDao.saveNewBook(new Book("Saved Book " + next, "jmh-saved-" + next, "Benchmark Press"));
+    }
+
+    @Benchmark
+    public Book updateBook() {
+        existingBook.setPublisher("Benchmark Press " + sequence.incrementAndGet());
+        // the update checks the version, the next invocation has to carry the incremented one
+        existingBook = bookDao.updateBook(existingBook);
+        return existingBook;
+    }
+
+    @Benchmark
+    public void deleteBookById(BookToDelete bookToDelete) {
+        bookDao.deleteBookById(bookToDelete.id);
+    }
+
+    /**
+     * Inserts the book deleted by the next invocation, outside of the measured time.
+     */
+    @State(Scope.Thread)
+    public static class BookToDelete {
+
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void insert(BookDaoBenchmark benchmark) {
+            long next = benchmark.sequence.incrementAndGet();
+            id = benchmark.bookDao.saveNewBook(new Book("Deleted Book " + next, "jmh-deleted-" + next, "Benchmark Press")).getId();
+        }
+    }
+}
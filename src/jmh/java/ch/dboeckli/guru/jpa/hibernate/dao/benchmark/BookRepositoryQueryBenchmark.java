@@ -0,0 +1,82 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.benchmark;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same lookup by title through every query flavour of {@link BookRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRepositoryQueryBenchmark {
+
+    @Param({"1000", "100000"})
+    int dataSetSize;
+
+    ConfigurableApplicationContext context;
+    BookRepository bookRepository;
+    String title;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start(dataSetSize);
+        bookRepository = context.getBean(BookRepository.class);
+        title = BenchmarkContext.bookTitle(dataSetSize / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> derivedFindBookByTitle() {
+        return bookRepository.findBookByTitle(title);
+    }
+
+    @Benchmark
+    public Book derivedReadByTitle() {
+        return bookRepository.readByTitle(title);
+    }
+
+    @Benchmark
+    public Book derivedGetByTitle() {
+        return bookRepository.getByTitle(title);
+    }
+
+    @Benchmark
+    public Book jpqlFindBookByTitleWithQuery() {
+        return bookRepository.findBookByTitleWithQuery(title);
+    }
+
+    @Benchmark
+    public Book namedJpaNamed() {
+        return bookRepository.jpaNamed(title);
+    }
+
+    @Benchmark
+    public Book nativeFindBookByTitleWithNativeQuery() {
+        return bookRepository.findBookByTitleWithNativeQuery(title);
+    }
+}
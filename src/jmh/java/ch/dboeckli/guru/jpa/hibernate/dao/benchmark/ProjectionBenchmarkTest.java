@@ -0,0 +1,86 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.benchmark;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the entity listings with their projection counterparts. Allocation is measured per thread and is stable
+ * enough to assert on, the latency is only logged.
+ */
+@Import({BookDaoImpl.class, AuthorDaoImpl.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Slf4j
+class ProjectionBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+    private static final Pageable PAGE = PageRequest.of(0, 25);
+
+    @Autowired
+    BookDao bookDao;
+
+    @Autowired
+    AuthorDao authorDao;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void bookSummariesAllocateLessThanBooks() {
+        Measurement entities = measure("findAllBooks", () -> bookDao.findAllBooks(PAGE));
+        Measurement projections = measure("findAllBookSummaries", () -> bookDao.findAllBookSummaries(PAGE));
+
+        assertThat(projections.bytesPerCall()).isLessThan(entities.bytesPerCall());
+    }
+
+    @Test
+    void authorNamesAllocateLessThanAuthors() {
+        Measurement entities = measure("findAllAuthorsByLastName", () -> authorDao.findAllAuthorsByLastName("Smith", PAGE));
+        Measurement projections = measure("findAllAuthorNamesByLastName", () -> authorDao.findAllAuthorNamesByLastName("Smith", PAGE));
+
+        assertThat(projections.bytesPerCall()).isLessThan(entities.bytesPerCall());
+    }
+
+    private Measurement measure(String name, Runnable call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runInFreshPersistenceContext(call);
+        }
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long nanosBefore = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            runInFreshPersistenceContext(call);
+        }
+        Measurement measurement = new Measurement(
+            (threadMXBean.getThreadAllocatedBytes(threadId) - bytesBefore) / MEASURED_ITERATIONS,
+            (System.nanoTime() - nanosBefore) / MEASURED_ITERATIONS);
+        log.info("{}: {} bytes/call, {} us/call", name, measurement.bytesPerCall(), measurement.nanosPerCall() / 1000);
+        return measurement;
+    }
+
+    private void runInFreshPersistenceContext(Runnable call) {
+        call.run();
+        entityManager.clear();
+    }
+
+    private record Measurement(long bytesPerCall, long nanosPerCall) {
+    }
+}
@@ -0,0 +1,48 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AsyncBookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AsyncBookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BoundedVirtualThreadExecutor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Async DAO API on virtual threads. The number of concurrently running queries is bounded by the size of the Hikari
+ * pool, more would only queue up inside the pool and run into its connection timeout.
+ */
+@Configuration(proxyBeanMethods = false)
+@Slf4j
+public class AsyncDaoConfiguration {
+
+    static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    @Bean(destroyMethod = "close")
+    public BoundedVirtualThreadExecutor daoQueryExecutor(DataSource dataSource, MeterRegistry meterRegistry) {
+        int maxConcurrency = maximumPoolSize(dataSource);
+        log.info("Async DAO queries are limited to {} concurrent queries", maxConcurrency);
+        return new BoundedVirtualThreadExecutor("dao-query", maxConcurrency, meterRegistry);
+    }
+
+    @Bean
+    public AsyncBookDao asyncBookDao(BookDao bookDao, BoundedVirtualThreadExecutor daoQueryExecutor) {
+        return new AsyncBookDaoImpl(bookDao, daoQueryExecutor);
+    }
+
+    static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not determine the connection pool size", e);
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+}
@@ -0,0 +1,46 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorNameIndex;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves the author autocompletion from an {@link AuthorNameIndex}. The index is loaded from a streaming scan of the
+ * author names on startup and kept in sync by the author DAO afterwards. Without it the completions are queried.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "sdjpa.author-name-index", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AuthorNameIndexConfiguration {
+
+    @Bean
+    public AuthorNameIndex authorNameIndex() {
+        return new AuthorNameIndex();
+    }
+
+    @Bean
+    public MeterBinder authorNameIndexMetrics(AuthorNameIndex authorNameIndex) {
+        return registry -> Gauge.builder("dao.author.name.index.size", authorNameIndex, AuthorNameIndex::size)
+            .description("Authors in the in-memory autocompletion index")
+            .register(registry);
+    }
+
+    @Bean
+    public ApplicationRunner authorNameIndexLoader(AuthorNameIndex authorNameIndex, AuthorRepository authorRepository,
+                                                   PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return args -> readOnly.executeWithoutResult(status -> {
+            authorNameIndex.rebuild(authorRepository::streamAuthorNameBy);
+            log.info("Loaded {} authors into the autocompletion index", authorNameIndex.size());
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.BookImporter;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.ImportChunkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Bulk import of books and their authors from CSV or NDJSON. The chunks are written by a pool of workers, each one
+ * holds a connection while it writes, so the workers should leave room in the connection pool for the application.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(BookImportProperties.class)
+public class BookImportConfiguration {
+
+    @Bean
+    public BookImporter bookImporter(BookDao bookDao, AuthorDao authorDao, AuthorRepository authorRepository,
+                                     ImportChunkRepository importChunkRepository, EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectProvider<StatementBudget> statementBudget, JsonMapper jsonMapper,
+                                     BookImportProperties properties, MeterRegistry meterRegistry) {
+        return new BookImporter(bookDao, authorDao, authorRepository, importChunkRepository, entityManager,
+            transactionManager, statementBudget, jsonMapper, properties.chunkSize(), properties.workers(),
+            properties.queueCapacity(), properties.authorCacheSize(), meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Streaming book import, see {@link BookImportConfiguration}. A resumed import must use the chunk size it was started
+ * with.
+ */
+@ConfigurationProperties(prefix = "sdjpa.book-import")
+public record BookImportProperties(@DefaultValue("500") int chunkSize,
+                                   @DefaultValue("4") int workers,
+                                   @DefaultValue("8") int queueCapacity,
+                                   @DefaultValue("10000") int authorCacheSize) {
+}
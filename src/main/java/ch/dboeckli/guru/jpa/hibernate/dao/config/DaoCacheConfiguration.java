@@ -0,0 +1,35 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.CachingAuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.CachingBookDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts the caching decorators in front of the DAO implementations when {@code sdjpa.dao-cache.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DaoCacheProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.dao-cache", name = "enabled", havingValue = "true")
+public class DaoCacheConfiguration {
+
+    @Bean
+    @Primary
+    public BookDao cachingBookDao(BookDaoImpl bookDaoImpl, DaoCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CachingBookDao(bookDaoImpl, properties.maximumSize(), properties.timeToLive(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public AuthorDao cachingAuthorDao(AuthorDaoImpl authorDaoImpl, DaoCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CachingAuthorDao(authorDaoImpl, properties.maximumSize(), properties.timeToLive(), meterRegistry);
+    }
+}
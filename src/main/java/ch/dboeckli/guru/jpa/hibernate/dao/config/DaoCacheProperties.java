@@ -0,0 +1,15 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read-through cache at the DAO boundary, see {@link DaoCacheConfiguration}.
+ */
+@ConfigurationProperties(prefix = "sdjpa.dao-cache")
+public record DaoCacheProperties(boolean enabled,
+                                 @DefaultValue("10000") long maximumSize,
+                                 @DefaultValue("10m") Duration timeToLive) {
+}
@@ -0,0 +1,92 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AdaptiveConcurrencyLimiter;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.ConcurrencyLimitAspect;
+import ch.dboeckli.guru.jpa.hibernate.dao.health.ConcurrencyLimiterHealthIndicator;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.PoolAcquireLatency;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts an {@link AdaptiveConcurrencyLimiter} in front of the {@link ch.dboeckli.guru.jpa.hibernate.dao.dao.ConcurrencyLimited}
+ * DAOs. The limiter adapts to the acquire latency of the connection pools, the read replica pools of
+ * {@link ReadReplicaConfiguration} included, and takes the pod out of the readiness probe while it rejects a sizeable
+ * share of the calls. Without a configured initial limit it starts at the size of the primary pool and grows from
+ * there while the pools hand out connections quickly.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DaoConcurrencyProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.dao-concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DaoConcurrencyConfiguration {
+
+    // acquire samples older than this no longer count as congestion
+    private static final Duration ACQUIRE_LATENCY_STALE_AFTER = Duration.ofSeconds(1);
+
+    @Bean
+    public static PoolAcquireLatency poolAcquireLatency() {
+        return new PoolAcquireLatency(ACQUIRE_LATENCY_STALE_AFTER);
+    }
+
+    /**
+     * Hooks the acquire latency into the pool before it starts. Boot's own Hikari metrics binding backs off when a
+     * tracker factory is present, so the decorated factory records the {@code hikaricp.*} meters itself.
+     */
+    @Bean
+    public static BeanPostProcessor poolAcquireLatencyPostProcessor(ObjectProvider<PoolAcquireLatency> poolAcquireLatency,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+                    MeterRegistry registry = meterRegistry.getIfAvailable();
+                    if (hikari != null && registry != null && hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+                        try {
+                            hikari.setMetricsTrackerFactory(poolAcquireLatency.getObject()
+                                .decorate(new MicrometerMetricsTrackerFactory(registry)));
+                        } catch (IllegalStateException e) {
+                            log.warn("Pool {} is already running, the DAO limiter cannot see its acquire latency", hikari.getPoolName());
+                        }
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter daoConcurrencyLimiter(DaoConcurrencyProperties properties, DataSource dataSource,
+                                                            PoolAcquireLatency poolAcquireLatency) {
+        int initialLimit = properties.initialLimit() != null
+            ? properties.initialLimit()
+            : AsyncDaoConfiguration.maximumPoolSize(dataSource);
+        return new AdaptiveConcurrencyLimiter(initialLimit, properties.minLimit(), properties.maxLimit(),
+            properties.backoffRatio(), properties.backoffInterval(), properties.acquireLatencyThreshold(),
+            properties.maxQueueSize(), properties.maxWait(), poolAcquireLatency);
+    }
+
+    @Bean
+    public ConcurrencyLimitAspect concurrencyLimitAspect(AdaptiveConcurrencyLimiter daoConcurrencyLimiter) {
+        return new ConcurrencyLimitAspect(daoConcurrencyLimiter);
+    }
+
+    @Bean
+    public ConcurrencyLimiterHealthIndicator concurrencyLimiterHealthIndicator(AdaptiveConcurrencyLimiter daoConcurrencyLimiter,
+                                                                               DaoConcurrencyProperties properties) {
+        return new ConcurrencyLimiterHealthIndicator(daoConcurrencyLimiter, properties.readinessRejectionWindow(),
+            properties.readinessRejectionRatio(), properties.readinessMinRejections());
+    }
+}
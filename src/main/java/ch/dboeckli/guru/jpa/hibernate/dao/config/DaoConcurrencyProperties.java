@@ -0,0 +1,25 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit in front of the DAOs, see {@link DaoConcurrencyConfiguration}. Without an initial limit
+ * the limiter starts at the size of the connection pool.
+ */
+@ConfigurationProperties(prefix = "sdjpa.dao-concurrency")
+public record DaoConcurrencyProperties(@DefaultValue("true") boolean enabled,
+                                       Integer initialLimit,
+                                       @DefaultValue("1") int minLimit,
+                                       @DefaultValue("100") int maxLimit,
+                                       @DefaultValue("0.9") double backoffRatio,
+                                       @DefaultValue("1s") Duration backoffInterval,
+                                       @DefaultValue("20ms") Duration acquireLatencyThreshold,
+                                       @DefaultValue("100") int maxQueueSize,
+                                       @DefaultValue("500ms") Duration maxWait,
+                                       @DefaultValue("10s") Duration readinessRejectionWindow,
+                                       @DefaultValue("0.05") double readinessRejectionRatio,
+                                       @DefaultValue("5") int readinessMinRejections) {
+}
@@ -0,0 +1,109 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exports the Hibernate {@link Statistics} as meters. The per query meters are keyed by the query string; Hibernate
+ * only learns about a query when it is executed the first time, so they are refreshed periodically.
+ */
+public class HibernateStatisticsMetrics implements MeterBinder, AutoCloseable {
+
+    private final Statistics statistics;
+    private final Duration queryMetersRefreshInterval;
+    private final ScheduledExecutorService refresher;
+    private MultiGauge queryExecutionMaxTime;
+    private MultiGauge queryExecutionCount;
+
+    public HibernateStatisticsMetrics(Statistics statistics, Duration queryMetersRefreshInterval) {
+        this.statistics = statistics;
+        this.queryMetersRefreshInterval = queryMetersRefreshInterval;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("hibernate-statistics").factory());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.sessions.open", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.transactions", Statistics::getSuccessfulTransactionCount, "result", "success");
+        counter(registry, "hibernate.transactions", stats -> stats.getTransactionCount() - stats.getSuccessfulTransactionCount(), "result", "failure");
+        counter(registry, "hibernate.flushes", Statistics::getFlushCount);
+        counter(registry, "hibernate.statements", Statistics::getPrepareStatementCount, "status", "prepared");
+        counter(registry, "hibernate.entities.loads", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.fetches", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.entities.inserts", Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updates", Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deletes", Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.collections.loads", Statistics::getCollectionLoadCount);
+        counter(registry, "hibernate.collections.fetches", Statistics::getCollectionFetchCount);
+        counter(registry, "hibernate.query.executions", Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.second.level.cache.requests", Statistics::getSecondLevelCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.second.level.cache.requests", Statistics::getSecondLevelCacheMissCount, "result", "miss");
+        counter(registry, "hibernate.query.cache.requests", Statistics::getQueryCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.query.cache.requests", Statistics::getQueryCacheMissCount, "result", "miss");
+        counter(registry, "hibernate.query.plan.cache.requests", Statistics::getQueryPlanCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.query.plan.cache.requests", Statistics::getQueryPlanCacheMissCount, "result", "miss");
+
+        Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                stats -> ratio(stats.getSecondLevelCacheHitCount(), stats.getSecondLevelCacheMissCount()))
+            .register(registry);
+        Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                stats -> ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+            .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics,
+                stats -> ratio(stats.getQueryPlanCacheHitCount(), stats.getQueryPlanCacheMissCount()))
+            .register(registry);
+        Gauge.builder("hibernate.query.execution.max", statistics, Statistics::getQueryExecutionMaxTime)
+            .baseUnit("milliseconds")
+            .description("Slowest query execution over all queries")
+            .register(registry);
+
+        queryExecutionMaxTime = MultiGauge.builder("hibernate.query.execution.max.by.query")
+            .baseUnit("milliseconds")
+            .description("Slowest execution per query string")
+            .register(registry);
+        queryExecutionCount = MultiGauge.builder("hibernate.query.execution.count.by.query")
+            .description("Executions per query string")
+            .register(registry);
+        refreshQueryMeters();
+        long intervalMillis = queryMetersRefreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQueryMeters, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void refreshQueryMeters() {
+        queryExecutionMaxTime.register(Arrays.stream(statistics.getQueries())
+            .map(query -> MultiGauge.Row.of(Tags.of("query", query), statistics.getQueryStatistics(query), QueryStatistics::getExecutionMaxTime))
+            .toList(), true);
+        queryExecutionCount.register(Arrays.stream(statistics.getQueries())
+            .map(query -> MultiGauge.Row.of(Tags.of("query", query), statistics.getQueryStatistics(query), QueryStatistics::getExecutionCount))
+            .toList(), true);
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private void counter(MeterRegistry registry, String name, ToDoubleFunction<Statistics> count, String... tags) {
+        FunctionCounter.builder(name, statistics, count)
+            .tags(tags)
+            .register(registry);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,17 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.logging.AsyncAppenderMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exports the counters of the asynchronous console appender configured in {@code logback-spring.xml}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoggingMetricsConfiguration {
+
+    @Bean
+    public AsyncAppenderMetrics asyncAppenderMetrics() {
+        return new AsyncAppenderMetrics();
+    }
+}
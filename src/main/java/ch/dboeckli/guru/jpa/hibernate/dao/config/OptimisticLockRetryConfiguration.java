@@ -0,0 +1,26 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.OptimisticLockRetryAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optimistic concurrency for the read-modify-write DAO updates: the {@code @Version} column detects a concurrent
+ * change without row locks, the {@link OptimisticLockRetryAspect} repeats the losing update against the fresh row.
+ * Without it the conflict goes to the caller.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(OptimisticLockRetryProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.optimistic-lock-retry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OptimisticLockRetryConfiguration {
+
+    @Bean
+    public OptimisticLockRetryAspect optimisticLockRetryAspect(OptimisticLockRetryProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new OptimisticLockRetryAspect(properties.maxRetries(), properties.delay(), properties.multiplier(),
+            properties.maxDelay(), properties.jitter(), meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Retries of DAO updates that lost an optimistic locking race, see {@link OptimisticLockRetryConfiguration}. The delay
+ * grows by the multiplier per retry up to the max delay, each one is varied by up to the jitter.
+ */
+@ConfigurationProperties(prefix = "sdjpa.optimistic-lock-retry")
+public record OptimisticLockRetryProperties(@DefaultValue("true") boolean enabled,
+                                            @DefaultValue("3") long maxRetries,
+                                            @DefaultValue("20ms") Duration delay,
+                                            @DefaultValue("2.0") double multiplier,
+                                            @DefaultValue("200ms") Duration maxDelay,
+                                            @DefaultValue("10ms") Duration jitter) {
+}
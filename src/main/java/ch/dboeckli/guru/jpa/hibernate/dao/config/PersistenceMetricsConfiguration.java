@@ -0,0 +1,31 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.StatisticsSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Turns on the Hibernate statistics and exports them to Micrometer. The DAO methods themselves are timed through
+ * their {@link io.micrometer.observation.annotation.Observed} annotation.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PersistenceMetricsConfiguration {
+
+    static final Duration QUERY_METERS_REFRESH_INTERVAL = Duration.ofSeconds(15);
+
+    @Bean
+    public HibernatePropertiesCustomizer statisticsHibernatePropertiesCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(StatisticsSettings.GENERATE_STATISTICS, true);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics(),
+            QUERY_METERS_REFRESH_INTERVAL);
+    }
+}
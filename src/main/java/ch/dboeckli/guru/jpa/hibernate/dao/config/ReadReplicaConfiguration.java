@@ -0,0 +1,78 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.PoolAcquireLatency;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.ReadWriteRoutingDataSource;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.ReplicaPool;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Replaces the auto-configured pool with a {@link ReadWriteRoutingDataSource} when
+ * {@code sdjpa.read-replicas.enabled=true}: {@code @Transactional(readOnly = true)} work goes to the replicas, all
+ * other work stays on the primary configured under {@code spring.datasource}.
+ * <p>
+ * The replica pools report their acquire latency to the {@link PoolAcquireLatency} of the DAO concurrency limit like
+ * the primary does, so the limiter also backs off while the replicas are congested.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties,
+                                                 Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                                 ObjectProvider<PoolAcquireLatency> poolAcquireLatency) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        List<HikariDataSource> replicas = IntStream.range(0, properties.replicas().size())
+            .mapToObj(index -> replica(index, properties.replicas().get(index), dataSourceProperties, environment,
+                meterRegistry, poolAcquireLatency))
+            .toList();
+        ReplicaPool replicaPool = new ReplicaPool(replicas, primary, properties.selection(), properties.lagQuery(),
+            properties.maxLag(), properties.healthCheckInterval());
+        meterRegistry.ifAvailable(replicaPool::bindTo);
+        return new ReadWriteRoutingDataSource(primary, replicaPool);
+    }
+
+    private static HikariDataSource replica(int index, ReadReplicaProperties.Replica replica, DataSourceProperties dataSourceProperties,
+                                            Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                            ObjectProvider<PoolAcquireLatency> poolAcquireLatency) {
+        HikariDataSource dataSource = new HikariDataSource();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("replica-" + (index + 1));
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.url());
+        dataSource.setUsername(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername());
+        dataSource.setPassword(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword());
+        dataSource.setReadOnly(true);
+        // an unreachable replica must not keep the application from starting, the health check takes it out instead
+        dataSource.setInitializationFailTimeout(-1);
+        meterRegistry.ifAvailable(registry -> {
+            MetricsTrackerFactory trackerFactory = new MicrometerMetricsTrackerFactory(registry);
+            PoolAcquireLatency latency = poolAcquireLatency.getIfAvailable();
+            dataSource.setMetricsTrackerFactory(latency != null ? latency.decorate(trackerFactory) : trackerFactory);
+        });
+        return dataSource;
+    }
+}
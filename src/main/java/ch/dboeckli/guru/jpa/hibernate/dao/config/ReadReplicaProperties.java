@@ -0,0 +1,24 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.ReplicaSelection;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replica pools for read-only transactions, see {@link ReadReplicaConfiguration}. The pools take their remaining
+ * settings from {@code spring.datasource.hikari}.
+ */
+@ConfigurationProperties(prefix = "sdjpa.read-replicas")
+public record ReadReplicaProperties(boolean enabled,
+                                    @DefaultValue("ROUND_ROBIN") ReplicaSelection selection,
+                                    @DefaultValue("5s") Duration healthCheckInterval,
+                                    @DefaultValue("10s") Duration maxLag,
+                                    String lagQuery,
+                                    @DefaultValue List<Replica> replicas) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
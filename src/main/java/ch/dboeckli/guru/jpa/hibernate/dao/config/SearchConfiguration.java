@@ -0,0 +1,39 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.search.BookSearchIndexer;
+import ch.dboeckli.guru.jpa.hibernate.dao.search.SearchIndexEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Full-text search over the books with Hibernate Search and an embedded Lucene index. Saves, updates and deletes
+ * through Hibernate keep the index current, the book DAO takes care of its bulk statements. The index is rebuilt on
+ * startup because the sql init scripts and an ephemeral index directory leave it empty.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfiguration {
+
+    @Bean
+    public BookSearchIndexer bookSearchIndexer(EntityManagerFactory entityManagerFactory, SearchProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new BookSearchIndexer(entityManagerFactory, properties.threadsToLoadObjects(),
+            properties.batchSizeToLoadObjects(), meterRegistry);
+    }
+
+    @Bean
+    public SearchIndexEndpoint searchIndexEndpoint(BookSearchIndexer bookSearchIndexer) {
+        return new SearchIndexEndpoint(bookSearchIndexer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sdjpa.search", name = "reindex-on-startup", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner bookSearchIndexRunner(BookSearchIndexer bookSearchIndexer) {
+        return args -> bookSearchIndexer.reindex();
+    }
+}
@@ -0,0 +1,14 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Mass indexing of the book search index, see {@link SearchConfiguration}. The index itself is configured with the
+ * {@code spring.jpa.properties.hibernate.search.*} properties.
+ */
+@ConfigurationProperties(prefix = "sdjpa.search")
+public record SearchProperties(@DefaultValue("true") boolean reindexOnStartup,
+                               @DefaultValue("2") int threadsToLoadObjects,
+                               @DefaultValue("25") int batchSizeToLoadObjects) {
+}
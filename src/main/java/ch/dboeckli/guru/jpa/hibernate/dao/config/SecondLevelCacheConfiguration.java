@@ -0,0 +1,66 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Enables the Hibernate second-level and query cache backed by Caffeine through JCache. The cache manager is owned by
+ * the application context (one per context, so test contexts do not share cached rows) and its regions are exported
+ * to Micrometer.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.second-level-cache", name = "enabled", matchIfMissing = true)
+public class SecondLevelCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("sdjpa-second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        properties.regions().forEach((name, region) -> cacheManager.createCache(name, toCaffeineConfiguration(region)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernatePropertiesCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(CacheSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(CacheSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> secondLevelCacheManager.getCacheNames().forEach(name ->
+            JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(name)));
+    }
+
+    private static CaffeineConfiguration<Object, Object> toCaffeineConfiguration(SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+        if (region.timeToLive() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.timeToLive().toNanos()));
+        }
+        // hibernate caches immutable, disassembled entries, there is no need to copy them on every access
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,22 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions. Every region becomes a bounded Caffeine cache, regions without
+ * {@code time-to-live} never expire.
+ */
+@ConfigurationProperties(prefix = "sdjpa.second-level-cache")
+public record SecondLevelCacheProperties(@DefaultValue("true") boolean enabled, Map<String, Region> regions) {
+
+    public SecondLevelCacheProperties {
+        regions = regions == null ? Map.of() : Map.copyOf(regions);
+    }
+
+    public record Region(@DefaultValue("1000") long maximumSize, Duration timeToLive) {
+    }
+}
@@ -0,0 +1,60 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudgetFilter;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the {@link DataSource} in a proxy that times every statement, logs the slow ones and counts the statements per
+ * HTTP request or transaction against a budget. Replaces {@code show_sql}, which printed every statement to stdout.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlMonitoringProperties.class)
+@ConditionalOnProperty(prefix = "sdjpa.sql-monitoring", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfiguration {
+
+    @Bean
+    public StatementBudget statementBudget(SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        return new StatementBudget(properties.statementBudget(), properties.failOnBudgetExceeded(), meterRegistry);
+    }
+
+    @Bean
+    public StatementMetricsListener statementMetricsListener(SqlMonitoringProperties properties, StatementBudget statementBudget,
+                                                             MeterRegistry meterRegistry) {
+        return new StatementMetricsListener(properties.slowQueryThreshold(), statementBudget, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication
+    public StatementBudgetFilter statementBudgetFilter(StatementBudget statementBudget) {
+        return new StatementBudgetFilter(statementBudget);
+    }
+
+    @Bean
+    public static BeanPostProcessor statementMetricsDataSourcePostProcessor(ObjectProvider<StatementMetricsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
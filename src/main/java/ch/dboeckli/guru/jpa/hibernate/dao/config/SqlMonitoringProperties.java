@@ -0,0 +1,16 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * JDBC statement monitoring, see {@link SqlMonitoringConfiguration}.
+ */
+@ConfigurationProperties(prefix = "sdjpa.sql-monitoring")
+public record SqlMonitoringProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("200ms") Duration slowQueryThreshold,
+                                      @DefaultValue("50") int statementBudget,
+                                      boolean failOnBudgetExceeded) {
+}
@@ -0,0 +1,196 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit in front of the DAOs. Every finished call is a sample: while the connection pool hands out
+ * connections quickly and the limit is used, the limit grows by one per limit's worth of calls; once the acquire
+ * latency passes the threshold it is cut by the backoff ratio, at most once per backoff interval, as the smoothed
+ * latency stays above the threshold for a while after a single congested moment. Calls beyond the limit wait in a
+ * bounded queue and are rejected when the queue is full or the wait times out, so a saturated pool pushes back instead
+ * of piling up threads.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long backoffIntervalNanos;
+    private final long acquireLatencyThresholdNanos;
+    private final int maxQueueSize;
+    private final long maxWaitNanos;
+    private final LongSupplier acquireLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final ThreadLocal<Permit> heldPermit = new ThreadLocal<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    // written under the lock, volatile for the gauges and the health indicator that read them without it
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private long lastBackoffNanos;
+    private boolean backedOff;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      Duration backoffInterval, Duration acquireLatencyThreshold, int maxQueueSize,
+                                      Duration maxWait, LongSupplier acquireLatencyNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.backoffIntervalNanos = backoffInterval.toNanos();
+        this.acquireLatencyThresholdNanos = acquireLatencyThreshold.toNanos();
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.acquireLatencyNanos = acquireLatencyNanos;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if the limit is reached. A thread that already holds one, because a limited
+     * DAO called another, gets a permit that releases nothing.
+     */
+    public Permit acquire() {
+        if (heldPermit.get() != null) {
+            return Permit.NESTED;
+        }
+        calls.increment();
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                awaitPermit();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        Permit permit = new Permit(this);
+        heldPermit.set(permit);
+        return permit;
+    }
+
+    private void awaitPermit() {
+        if (queued >= maxQueueSize) {
+            reject("the queue is full");
+        }
+        queued++;
+        try {
+            long remainingNanos = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    reject("no permit within the wait time");
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject("interrupted while waiting");
+        } finally {
+            queued--;
+        }
+    }
+
+    private void reject(String reason) {
+        rejected.increment();
+        throw new ConcurrencyLimitExceededException("DAO concurrency limit of %d reached, %s".formatted((int) limit, reason));
+    }
+
+    private void release() {
+        heldPermit.remove();
+        long latencyNanos = acquireLatencyNanos.getAsLong();
+        lock.lock();
+        try {
+            boolean utilized = inFlight >= (int) limit;
+            inFlight--;
+            if (latencyNanos > acquireLatencyThresholdNanos) {
+                backOff();
+            } else if (utilized) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backOff() {
+        long now = System.nanoTime();
+        if (backedOff && now - lastBackoffNanos < backoffIntervalNanos) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastBackoffNanos = now;
+        backedOff = true;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * All calls that asked for a permit, the rejected ones included.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dao.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive limit of concurrent DAO calls")
+            .register(registry);
+        Gauge.builder("dao.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("DAO calls holding a permit")
+            .register(registry);
+        Gauge.builder("dao.concurrency.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+            .description("DAO calls waiting for a permit")
+            .register(registry);
+        FunctionCounter.builder("dao.concurrency.rejected", this, AdaptiveConcurrencyLimiter::getRejected)
+            .description("DAO calls rejected at the limit")
+            .register(registry);
+        Gauge.builder("dao.concurrency.acquire.latency", acquireLatencyNanos, supplier -> supplier.getAsLong() / 1e9)
+            .description("Smoothed connection pool acquire latency the limit adapts to")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    public static final class Permit implements AutoCloseable {
+
+        private static final Permit NESTED = new Permit(null);
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        private Permit(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void close() {
+            if (limiter != null) {
+                limiter.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncBookDao {
+
+    /**
+     * Completes exceptionally with {@link jakarta.persistence.EntityNotFoundException} if there is no such book.
+     */
+    CompletableFuture<Book> findBookByTitle(String title);
+
+    /**
+     * Looks up all titles concurrently. Titles without a book are not contained in the result.
+     */
+    CompletableFuture<Map<String, Book>> findBooksByTitles(Collection<String> titles);
+}
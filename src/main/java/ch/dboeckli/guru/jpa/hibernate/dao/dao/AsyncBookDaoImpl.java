@@ -0,0 +1,46 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@RequiredArgsConstructor
+public class AsyncBookDaoImpl implements AsyncBookDao {
+
+    private final BookDao bookDao;
+    private final BoundedVirtualThreadExecutor executor;
+
+    @Override
+    public CompletableFuture<Book> findBookByTitle(String title) {
+        return executor.supply(() -> bookDao.findBookByTitle(title));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Book>> findBooksByTitles(Collection<String> titles) {
+        List<CompletableFuture<Optional<Book>>> lookups = titles.stream()
+            .distinct()
+            .map(title -> executor.supply(() -> findOptionalBookByTitle(title)))
+            .toList();
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+            .thenApply(done -> {
+                Map<String, Book> books = new LinkedHashMap<>();
+                lookups.forEach(lookup -> lookup.join().ifPresent(book -> books.put(book.getTitle(), book)));
+                return books;
+            });
+    }
+
+    private Optional<Book> findOptionalBookByTitle(String title) {
+        try {
+            return Optional.of(bookDao.findBookByTitle(title));
+        } catch (EntityNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
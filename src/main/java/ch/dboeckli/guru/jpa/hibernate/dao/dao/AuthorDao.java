@@ -1,20 +1,52 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.dao;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AuthorDao {
     Author getById(Long id);
 
+    /**
+     * Same as {@link BookDao#getByIds(Collection)} for authors.
+     */
+    List<Author> getByIds(Collection<Long> ids);
+
+    /**
+     * Same as {@link BookDao#findVersionById(Long)} for authors.
+     */
+    Optional<Long> findVersionById(Long id);
+
+    Author getByIdWithBooks(Long id);
+
     Author findAuthorByName(String firstName, String lastName);
 
     List<Author> findAllAuthorsByLastName(String lastname, Pageable pageable);
 
+    List<AuthorName> findAllAuthorNamesByLastName(String lastname, Pageable pageable);
+
+    long countAuthorsByLastName(String lastname);
+
+    /**
+     * Up to {@code limit} authors with a first or last name starting with the prefix, ignoring case. Served from the
+     * {@link AuthorNameIndex} when there is one, without touching the database.
+     */
+    List<AuthorName> completeAuthorNames(String prefix, int limit);
+
     Author saveNewAuthor(Author author);
 
+    List<Author> saveAllNewAuthors(Collection<Author> authors);
+
+    /**
+     * Same as {@link BookDao#updateBook(Book)} for the names of an author.
+     */
     Author updateAuthor(Author author);
 
+    int patchAuthor(Long id, AuthorPatch patch);
+
     void deleteAuthorById(Long id);
 }
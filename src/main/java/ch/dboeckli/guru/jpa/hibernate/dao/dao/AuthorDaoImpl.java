@@ -1,53 +1,174 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.dao;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
 import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
+@Observed(name = DaoObservations.NAME, lowCardinalityKeyValues = {DaoObservations.DAO, "authorDao"})
+@ConcurrencyLimited
 public class AuthorDaoImpl implements AuthorDao {
 
     private final AuthorRepository authorRepository;
+    private final EntityManager entityManager;
+    private final ObjectProvider<AuthorNameIndex> authorNameIndex;
 
     @Override
+    @Transactional(readOnly = true)
     public Author getById(Long id) {
         return authorRepository.getReferenceById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Author> getByIds(Collection<Long> ids) {
+        return MultiLoader.loadAll(entityManager, Author.class, ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return authorRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Author getByIdWithBooks(Long id) {
+        return authorRepository.findWithBooksById(id)
+            .orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Author findAuthorByName(String firstName, String lastName) {
         return authorRepository.findAuthorByFirstNameAndLastName(firstName, lastName)
             .orElseThrow(EntityNotFoundException::new);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Author> findAllAuthorsByLastName(String lastname, Pageable pageable) {
-        return authorRepository.findAuthorByLastName(lastname, pageable).getContent();
+        return authorRepository.findAuthorSliceByLastName(lastname, pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorName> findAllAuthorNamesByLastName(String lastname, Pageable pageable) {
+        return authorRepository.findAuthorNameSliceByLastName(lastname, pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countAuthorsByLastName(String lastname) {
+        return authorRepository.countByLastName(lastname);
+    }
+
+    // not transactional, the index is answered without a connection
+    @Override
+    public List<AuthorName> completeAuthorNames(String prefix, int limit) {
+        AuthorNameIndex index = authorNameIndex.getIfAvailable();
+        if (index != null) {
+            return index.complete(prefix, limit);
+        }
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String normalized = prefix.strip().toLowerCase(Locale.ROOT);
+        return authorRepository.findAuthorNamesByNamePrefix(normalized, normalized.length(), Limit.of(limit));
     }
 
     @Override
     public Author saveNewAuthor(Author author) {
-        return authorRepository.save(author);
+        Author saved = authorRepository.save(author);
+        afterCommit(index -> index.put(toAuthorName(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Author> saveAllNewAuthors(Collection<Author> authors) {
+        List<Author> saved = BatchPersister.persistAll(entityManager, authors);
+        List<AuthorName> names = saved.stream().map(AuthorDaoImpl::toAuthorName).toList();
+        afterCommit(index -> index.putAll(names));
+        return saved;
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Author updateAuthor(Author author) {
         Author foundAuthor = authorRepository.getReferenceById(author.getId());
+        if (author.getVersion() != null && !author.getVersion().equals(foundAuthor.getVersion())) {
+            throw new StaleVersionException(Author.class, author.getId(), author.getVersion(), foundAuthor.getVersion());
+        }
         foundAuthor.setFirstName(author.getFirstName());
         foundAuthor.setLastName(author.getLastName());
-        return authorRepository.save(foundAuthor);
+        Author saved = authorRepository.save(foundAuthor);
+        AuthorName name = toAuthorName(saved);
+        afterCommit(index -> index.put(name));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int patchAuthor(Long id, AuthorPatch patch) {
+        int updated = PartialUpdate.of(entityManager, Author.class)
+            .setIfPresent("firstName", patch.firstName())
+            .setIfPresent("lastName", patch.lastName())
+            .executeForId(id);
+        if (updated > 0) {
+            // the bulk update bypasses the persistence context, the author's books embed the names in the search index
+            entityManager.getEntityManagerFactory().getCache().evict(Author.class, id);
+            Search.session(entityManager).indexingPlan().addOrUpdate(entityManager.getReference(Author.class, id));
+            afterCommit(index -> index.patch(id, patch.firstName(), patch.lastName()));
+        }
+        return updated;
     }
 
     @Override
     public void deleteAuthorById(Long id) {
         authorRepository.deleteById(id);
+        afterCommit(index -> index.remove(id));
+    }
+
+    // a rolled back change must not show up in the autocompletion, outside a transaction the change is committed already
+    private void afterCommit(Consumer<AuthorNameIndex> change) {
+        AuthorNameIndex index = authorNameIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.accept(index);
+                }
+            });
+        } else {
+            change.accept(index);
+        }
+    }
+
+    private static AuthorName toAuthorName(Author author) {
+        return new AuthorName(author.getId(), author.getFirstName(), author.getLastName());
     }
 }
@@ -0,0 +1,200 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over the first and last names of all authors for autocompletion. Every author is stored
+ * under both names in two parallel arrays sorted by the lower-cased name, a completion is a binary search for the
+ * prefix followed by a scan of the matching range.
+ * <p>
+ * Readers never lock, they work on an immutable snapshot. Writers copy the arrays, which is linear in the number of
+ * authors and fine for a table that is read on every keystroke but rarely written.
+ */
+public class AuthorNameIndex {
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing(Entry::key)
+        .thenComparing(entry -> entry.author().id());
+
+    private volatile Entries entries = Entries.EMPTY;
+
+    /**
+     * Up to {@code limit} authors with a first or last name starting with the prefix, ignoring case. Authors are
+     * ordered by the matching name, an author matching with both names is returned once.
+     */
+    public List<AuthorName> complete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String normalized = normalize(prefix);
+        Entries current = entries;
+        Map<Long, AuthorName> completions = new LinkedHashMap<>();
+        for (int i = current.lowerBound(normalized); i < current.keys.length && completions.size() < limit; i++) {
+            if (!current.keys[i].startsWith(normalized)) {
+                break;
+            }
+            completions.putIfAbsent(current.authors[i].id(), current.authors[i]);
+        }
+        return List.copyOf(completions.values());
+    }
+
+    /**
+     * Number of indexed authors.
+     */
+    public int size() {
+        return entries.authorCount;
+    }
+
+    /**
+     * Replaces the index with the streamed authors. The stream is opened and consumed under the lock the writers take,
+     * so a change that committed after the stream read its snapshot waits and is applied on top of it instead of being
+     * overwritten. A change applied before the stream is opened is part of its snapshot.
+     */
+    public synchronized void rebuild(Supplier<Stream<AuthorName>> authorNames) {
+        List<Entry> all = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        try (Stream<AuthorName> authors = authorNames.get()) {
+            authors.forEach(author -> {
+                if (addEntries(all, author)) {
+                    ids.add(author.id());
+                }
+            });
+        }
+        all.sort(ENTRY_ORDER);
+        entries = Entries.of(all, ids.size());
+    }
+
+    public void put(AuthorName author) {
+        putAll(List.of(author));
+    }
+
+    /**
+     * Adds the authors or replaces the names of the ones already in the index.
+     */
+    public synchronized void putAll(Collection<AuthorName> authors) {
+        Set<Long> ids = authors.stream().map(AuthorName::id).filter(Objects::nonNull).collect(Collectors.toSet());
+        List<Entry> added = new ArrayList<>();
+        Set<Long> addedIds = new HashSet<>();
+        authors.forEach(author -> {
+            if (addEntries(added, author)) {
+                addedIds.add(author.id());
+            }
+        });
+        added.sort(ENTRY_ORDER);
+        entries = entries.replace(ids, added, addedIds.size());
+    }
+
+    /**
+     * Changes the names of an indexed author, a {@code null} name is left as it is.
+     */
+    public synchronized void patch(Long id, String firstName, String lastName) {
+        AuthorName current = entries.find(id);
+        if (current != null) {
+            put(new AuthorName(id, firstName != null ? firstName : current.firstName(),
+                lastName != null ? lastName : current.lastName()));
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        entries = entries.replace(Set.of(id), List.of(), 0);
+    }
+
+    // an author without id or names cannot be completed and is not counted
+    private static boolean addEntries(List<Entry> entries, AuthorName author) {
+        if (author.id() == null) {
+            return false;
+        }
+        List<String> keys = Stream.of(author.firstName(), author.lastName())
+            .filter(name -> name != null && !name.isBlank())
+            .map(AuthorNameIndex::normalize)
+            .distinct()
+            .toList();
+        keys.forEach(key -> entries.add(new Entry(key, author)));
+        return !keys.isEmpty();
+    }
+
+    private static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, AuthorName author) {
+    }
+
+    private static final class Entries {
+
+        static final Entries EMPTY = new Entries(new String[0], new AuthorName[0], 0);
+
+        final String[] keys;
+        final AuthorName[] authors;
+        final int authorCount;
+
+        private Entries(String[] keys, AuthorName[] authors, int authorCount) {
+            this.keys = keys;
+            this.authors = authors;
+            this.authorCount = authorCount;
+        }
+
+        static Entries of(List<Entry> sorted, int authorCount) {
+            String[] keys = new String[sorted.size()];
+            AuthorName[] authors = new AuthorName[sorted.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = sorted.get(i).key();
+                authors[i] = sorted.get(i).author();
+            }
+            return new Entries(keys, authors, authorCount);
+        }
+
+        int lowerBound(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            // a negative index is the insertion point, equal keys are not unique so walk back to the first one
+            index = index < 0 ? -index - 1 : index;
+            while (index > 0 && keys[index - 1].equals(key)) {
+                index--;
+            }
+            return index;
+        }
+
+        AuthorName find(Long id) {
+            for (AuthorName author : authors) {
+                if (author.id().equals(id)) {
+                    return author;
+                }
+            }
+            return null;
+        }
+
+        // drops the entries of the given authors and merges the sorted new entries in one pass
+        Entries replace(Set<Long> ids, List<Entry> added, int addedAuthors) {
+            List<Entry> merged = new ArrayList<>(keys.length + added.size());
+            Set<Long> removed = new HashSet<>();
+            int next = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (ids.contains(authors[i].id())) {
+                    removed.add(authors[i].id());
+                    continue;
+                }
+                Entry existing = new Entry(keys[i], authors[i]);
+                while (next < added.size() && ENTRY_ORDER.compare(added.get(next), existing) < 0) {
+                    merged.add(added.get(next++));
+                }
+                merged.add(existing);
+            }
+            merged.addAll(added.subList(next, added.size()));
+            return of(merged, authorCount - removed.size() + addedAuthors);
+        }
+    }
+}
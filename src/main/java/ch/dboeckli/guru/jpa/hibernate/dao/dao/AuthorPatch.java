@@ -0,0 +1,7 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+/**
+ * Partial update of an {@link ch.dboeckli.guru.jpa.hibernate.dao.domain.Author}. Only non null fields are written.
+ */
+public record AuthorPatch(String firstName, String lastName) {
+}
@@ -0,0 +1,22 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+
+/**
+ * Immutable copy of an {@link Author} row as held by {@link CachingAuthorDao}.
+ */
+record AuthorSnapshot(Long id, Long version, String firstName, String lastName) {
+
+    static AuthorSnapshot of(Author author) {
+        return new AuthorSnapshot(author.getId(), author.getVersion(), author.getFirstName(), author.getLastName());
+    }
+
+    Author toAuthor() {
+        Author author = new Author();
+        author.setId(id);
+        author.setVersion(version);
+        author.setFirstName(firstName);
+        author.setLastName(lastName);
+        return author;
+    }
+}
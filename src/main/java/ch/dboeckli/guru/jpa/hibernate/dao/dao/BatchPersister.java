@@ -0,0 +1,44 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persists new entities in chunks of {@code hibernate.jdbc.batch_size}. The persistence context is flushed and cleared
+ * after every chunk, so each chunk goes out as one JDBC batch and memory stays flat for large inputs.
+ */
+final class BatchPersister {
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private BatchPersister() {
+    }
+
+    static <T> List<T> persistAll(EntityManager entityManager, Collection<T> entities) {
+        int batchSize = batchSize(entityManager);
+        List<T> persisted = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            persisted.add(entity);
+            if (persisted.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return persisted;
+    }
+
+    private static int batchSize(EntityManager entityManager) {
+        int batchSize = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getSessionFactoryOptions()
+            .getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+}
@@ -0,0 +1,38 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page, encoded as an url safe base64 string so callers treat it as opaque.
+ */
+record BookContinuationToken(Long id, String title) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    static BookContinuationToken afterId(Long id) {
+        return new BookContinuationToken(id, null);
+    }
+
+    static BookContinuationToken afterTitleAndId(String title, Long id) {
+        return new BookContinuationToken(id, title);
+    }
+
+    String encode() {
+        String raw = title == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + title;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookContinuationToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return afterId(Long.valueOf(raw));
+            }
+            return afterTitleAndId(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.dao;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookSummary;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookDao {
     Book getById(Long id);
 
+    /**
+     * Loads the books with one {@code IN} query per chunk of ids instead of one select per id. The books are returned in
+     * the order of the ids, ids without a book are skipped.
+     */
+    List<Book> getByIds(Collection<Long> ids);
+
+    /**
+     * Reads only the version column, for conditional requests that must not load the book.
+     */
+    Optional<Long> findVersionById(Long id);
+
     Book findBookByTitle(String title);
 
+    Book getByIdWithAuthor(Long id);
+
+    Book findBookWithAuthorByTitle(String title);
+
     List<Book> findAllBooks();
 
     List<Book> findAllBooks(int pageSize, int offset);
@@ -18,9 +37,62 @@ public interface BookDao {
 
     List<Book> findAllBooksSortByTitle(Pageable pageable);
 
+    List<Book> findAllBooksWithAuthor(Pageable pageable);
+
+    List<BookSummary> findAllBookSummaries(Pageable pageable);
+
+    long countAllBooks();
+
+    /**
+     * Streams all books with a title to the consumer inside a read-only transaction, each book is detached after the
+     * consumer returned, so the persistence context does not grow with the table.
+     *
+     * @return the number of exported books
+     */
+    long exportAllBooks(Consumer<Book> consumer);
+
+    KeysetPage<Book> findAllBooks(String continuationToken, int pageSize);
+
+    KeysetPage<Book> findAllBooksSortByTitle(String continuationToken, int pageSize);
+
+    /**
+     * Full-text search over title, publisher and author names, all terms of the query have to match. Results are
+     * ordered by relevance unless the pageable is sorted by title.
+     */
+    List<Book> searchBooks(String query, Pageable pageable);
+
     Book saveNewBook(Book book);
 
+    List<Book> saveAllNewBooks(Collection<Book> books);
+
+    /**
+     * Inserts the books whose ISBN is unknown and updates title, publisher and author of the others, the ISBN is the
+     * unique key. Books that are unchanged are not written. Safe to repeat and to run concurrently, a few batched
+     * statements per {@code hibernate.jdbc.batch_size} books. Sets the id of every given book.
+     *
+     * @throws IllegalArgumentException if a book has no ISBN
+     */
+    UpsertResult upsertBooksByIsbn(Collection<Book> books);
+
+    /**
+     * Updates title, ISBN, publisher and author of the book with the id of the given one. If the given book carries a
+     * version the update only succeeds if the book still has this version.
+     *
+     * @throws StaleVersionException if the book no longer has the given version
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if a concurrent update won and retrying
+     * did not help
+     */
     Book updateBook(Book book);
 
+    int patchBook(Long id, BookPatch patch);
+
     void deleteBookById(Long id);
+
+    int reassignBooksToAuthor(Long fromAuthorId, Long toAuthorId);
+
+    int renamePublisher(String oldPublisher, String newPublisher);
+
+    int deleteBooksByAuthorId(Long authorId);
+
+    int deleteBooksByIds(Collection<Long> ids);
 }
@@ -1,41 +1,93 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.dao;
 
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
 import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookSummary;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.hibernate.search.engine.search.common.BooleanOperator;
+import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
+import org.hibernate.search.engine.search.sort.dsl.SortFinalStep;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
+@Observed(name = DaoObservations.NAME, lowCardinalityKeyValues = {DaoObservations.DAO, "bookDao"})
+@ConcurrencyLimited
 public class BookDaoImpl implements BookDao {
 
+    private static final String[] SEARCH_FIELDS = {"title", "publisher", "author.firstName", "author.lastName"};
+
     private final BookRepository bookRepository;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional(readOnly = true)
     public Book getById(Long id) {
         return bookRepository.getReferenceById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Book> getByIds(Collection<Long> ids) {
+        return MultiLoader.loadAll(entityManager, Book.class, ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return bookRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Book findBookByTitle(String title) {
         return bookRepository.findBookByTitle(title)
             .orElseThrow(EntityNotFoundException::new);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Book getByIdWithAuthor(Long id) {
+        return bookRepository.findWithAuthorById(id)
+            .orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book findBookWithAuthorByTitle(String title) {
+        return bookRepository.findBookWithAuthorByTitle(title)
+            .orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Book> findAllBooks() {
         return bookRepository.findAll();
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findAllBooks(int pageSize, int offset) {
         Pageable pageable = PageRequest.ofSize(pageSize);
 
@@ -49,14 +101,125 @@ public class BookDaoImpl implements BookDao {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable).getContent();
+        return bookRepository.findBookSliceBy(pageable).getContent();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findAllBooksSortByTitle(Pageable pageable) {
-        Page<Book> bookPage = bookRepository.findAll(pageable);
-        return bookPage.getContent();
+        Slice<Book> bookSlice = bookRepository.findBookSliceBy(pageable);
+        return bookSlice.getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAllBooksWithAuthor(Pageable pageable) {
+        return bookRepository.findBookWithAuthorSliceBy(pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> findAllBookSummaries(Pageable pageable) {
+        return bookRepository.findBookSummarySliceBy(pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countAllBooks() {
+        return bookRepository.count();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAllBooks(Consumer<Book> consumer) {
+        long exported = 0;
+        try (Stream<Book> books = bookRepository.findAllByTitleNotNull()) {
+            for (Book book : (Iterable<Book>) books::iterator) {
+                consumer.accept(book);
+                entityManager.detach(book);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Book> findAllBooks(String continuationToken, int pageSize) {
+        requireKeysetPageSize(pageSize);
+        Long afterId = continuationToken == null ? 0L : BookContinuationToken.decode(continuationToken).id();
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return toKeysetPage(books, pageSize, book -> BookContinuationToken.afterId(book.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Book> findAllBooksSortByTitle(String continuationToken, int pageSize) {
+        requireKeysetPageSize(pageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Book> books;
+        if (continuationToken == null) {
+            books = bookRepository.findFirstTitledOrderByTitleAndId(limit);
+        } else {
+            BookContinuationToken token = BookContinuationToken.decode(continuationToken);
+            if (token.title() == null) {
+                throw new IllegalArgumentException("Continuation token was not issued for a title sorted listing");
+            }
+            books = bookRepository.findTitledAfterOrderByTitleAndId(token.title(), token.id(), limit);
+        }
+        return toKeysetPage(books, pageSize, book -> BookContinuationToken.afterTitleAndId(book.getTitle(), book.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> searchBooks(String query, Pageable pageable) {
+        var search = Search.session(entityManager).search(Book.class)
+            .where(f -> f.simpleQueryString()
+                .fields(SEARCH_FIELDS)
+                .matching(query)
+                .defaultOperator(BooleanOperator.AND))
+            .sort(f -> searchSort(f, pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return search.fetchAllHits();
+        }
+        return search.fetchHits(Math.toIntExact(pageable.getOffset()), pageable.getPageSize());
+    }
+
+    // only the title has a sortable index field, every other listing is ordered by relevance
+    private static SortFinalStep searchSort(SearchSortFactory f, Sort sort) {
+        if (sort.isUnsorted()) {
+            return f.score();
+        }
+        var composite = f.composite();
+        for (Sort.Order order : sort) {
+            if (!"title".equals(order.getProperty())) {
+                throw new IllegalArgumentException("Search results can only be sorted by title, not by " + order.getProperty());
+            }
+            var field = f.field(Book.TITLE_SORT_FIELD);
+            composite.add(order.isAscending() ? field.asc() : field.desc());
+        }
+        return composite.add(f.score());
+    }
+
+    private Author authorReference(Long authorId) {
+        return authorId == null ? null : entityManager.getReference(Author.class, authorId);
+    }
+
+    private static void requireKeysetPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1, was " + pageSize);
+        }
+    }
+
+    // one extra row is fetched to find out if there is a next page without running a count query
+    private static KeysetPage<Book> toKeysetPage(List<Book> books, int pageSize, Function<Book, BookContinuationToken> tokenOf) {
+        if (books.size() <= pageSize) {
+            return new KeysetPage<>(books, null);
+        }
+        List<Book> content = books.subList(0, pageSize);
+        return new KeysetPage<>(content, tokenOf.apply(content.getLast()).encode());
     }
 
     @Override
@@ -66,17 +229,105 @@ public class BookDaoImpl implements BookDao {
 
     @Override
     @Transactional
+    public List<Book> saveAllNewBooks(Collection<Book> books) {
+        return BatchPersister.persistAll(entityManager, books);
+    }
+
+    @Override
+    @Transactional
+    public UpsertResult upsertBooksByIsbn(Collection<Book> books) {
+        BookUpserter.Outcome outcome = BookUpserter.upsertByIsbn(entityManager, books);
+        reindexBooks(outcome.writtenIds());
+        return outcome.result();
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
     public Book updateBook(Book book) {
         Book foundBook = bookRepository.getReferenceById(book.getId());
+        // the version of a managed entity cannot be set, Hibernate only checks the one it loaded
+        if (book.getVersion() != null && !book.getVersion().equals(foundBook.getVersion())) {
+            throw new StaleVersionException(Book.class, book.getId(), book.getVersion(), foundBook.getVersion());
+        }
         foundBook.setTitle(book.getTitle());
         foundBook.setIsbn(book.getIsbn());
         foundBook.setPublisher(book.getPublisher());
-        foundBook.setAuthorId(book.getAuthorId());
+        foundBook.setAuthor(authorReference(book.getAuthorId()));
         return bookRepository.save(foundBook);
     }
 
+    @Override
+    @Transactional
+    public int patchBook(Long id, BookPatch patch) {
+        int updated = PartialUpdate.of(entityManager, Book.class)
+            .setIfPresent("title", patch.title())
+            .setIfPresent("isbn", patch.isbn())
+            .setIfPresent("publisher", patch.publisher())
+            .setIfPresent("author", authorReference(patch.authorId()))
+            .executeForId(id);
+        if (updated > 0) {
+            reindexBooks(List.of(id));
+        }
+        return updated;
+    }
+
     @Override
     public void deleteBookById(Long id) {
         bookRepository.deleteById(id);
     }
+
+    @Override
+    @Transactional
+    public int reassignBooksToAuthor(Long fromAuthorId, Long toAuthorId) {
+        List<Long> ids = bookRepository.findIdsByAuthorId(fromAuthorId);
+        int updated = bookRepository.updateAuthorIdByAuthorId(fromAuthorId, toAuthorId);
+        reindexBooks(ids);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int renamePublisher(String oldPublisher, String newPublisher) {
+        List<Long> ids = bookRepository.findIdsByPublisher(oldPublisher);
+        int updated = bookRepository.updatePublisherByPublisher(oldPublisher, newPublisher);
+        reindexBooks(ids);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteBooksByAuthorId(Long authorId) {
+        List<Long> ids = bookRepository.findIdsByAuthorId(authorId);
+        int deleted = bookRepository.deleteAllByAuthorIdInBulk(authorId);
+        purgeBooks(ids);
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteBooksByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = bookRepository.deleteAllByIdInBulk(ids);
+        purgeBooks(ids);
+        return deleted;
+    }
+
+    // bulk statements bypass the persistence context, so Hibernate Search has to be told about the affected books. The
+    // second-level cache only drops the stale rows on commit, the index would be built from them without the eviction.
+    private void reindexBooks(Collection<Long> ids) {
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        ids.forEach(id -> {
+            cache.evict(Book.class, id);
+            indexingPlan.addOrUpdate(entityManager.getReference(Book.class, id));
+        });
+    }
+
+    private void purgeBooks(Collection<Long> ids) {
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        ids.forEach(id -> indexingPlan.purge(Book.class, id, null));
+    }
 }
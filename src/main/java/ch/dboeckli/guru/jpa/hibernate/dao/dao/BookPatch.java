@@ -0,0 +1,11 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+/**
+ * Partial update of a {@link ch.dboeckli.guru.jpa.hibernate.dao.domain.Book}. Only non null fields are written.
+ */
+public record BookPatch(String title, String isbn, String publisher, Long authorId) {
+
+    public static BookPatch title(String title) {
+        return new BookPatch(title, null, null, null);
+    }
+}
@@ -0,0 +1,29 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+
+/**
+ * Immutable copy of a {@link Book} row as held by {@link CachingBookDao}. Every cache hit hands out a new detached
+ * {@link Book}, so callers can never modify the cached state. The author of such a book only carries its id, use the
+ * {@code WithAuthor} finders to get the author's details.
+ */
+record BookSnapshot(Long id, Long version, String title, String isbn, String publisher, Long authorId) {
+
+    static BookSnapshot of(Book book) {
+        return new BookSnapshot(book.getId(), book.getVersion(), book.getTitle(), book.getIsbn(), book.getPublisher(),
+            book.getAuthorId());
+    }
+
+    Book toBook() {
+        Book book = new Book(title, isbn, publisher);
+        book.setId(id);
+        book.setVersion(version);
+        if (authorId != null) {
+            Author author = new Author();
+            author.setId(authorId);
+            book.setAuthor(author);
+        }
+        return book;
+    }
+}
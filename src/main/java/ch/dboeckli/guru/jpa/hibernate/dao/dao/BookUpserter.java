@@ -0,0 +1,200 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Inserts or updates books by their unique ISBN. Per chunk of {@code hibernate.jdbc.batch_size} books the existing rows
+ * are read with one query, the new and changed books are then written as one JDBC batch of upsert statements, unchanged
+ * books are not written at all. The upsert makes a concurrent insert of the same ISBN an update instead of a unique
+ * constraint violation.
+ * <p>
+ * Ids of new books come from the entity's id generator. A book inserted by a concurrent transaction after the existing
+ * rows were read keeps its id, so the ids of the books meant to be inserted are read back by ISBN after the batch
+ * instead of trusting the batch update counts, which the MySQL driver does not report per row with rewritten batches.
+ * Hibernate does not see the statements, so the second-level cache of the books and their query results are evicted
+ * right away and again once the transaction completed.
+ */
+final class BookUpserter {
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final String MYSQL_UPSERT = """
+        INSERT INTO book (id, version, isbn, title, publisher, author_id) VALUES (?, 0, ?, ?, ?, ?) AS new
+        ON DUPLICATE KEY UPDATE title = new.title, publisher = new.publisher, author_id = new.author_id,
+        version = version + 1""";
+
+    private static final String H2_UPSERT = """
+        MERGE INTO book b USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+        CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) s (id, isbn, title, publisher, author_id) ON b.isbn = s.isbn
+        WHEN MATCHED THEN UPDATE SET title = s.title, publisher = s.publisher, author_id = s.author_id,
+        version = b.version + 1
+        WHEN NOT MATCHED THEN INSERT (id, version, isbn, title, publisher, author_id)
+        VALUES (s.id, 0, s.isbn, s.title, s.publisher, s.author_id)""";
+
+    private BookUpserter() {
+    }
+
+    /**
+     * Sets the id of every given book. If the same ISBN is given more than once the last book wins.
+     */
+    static Outcome upsertByIsbn(EntityManager entityManager, Collection<Book> books) {
+        Map<String, Book> booksByIsbn = new LinkedHashMap<>();
+        for (Book book : books) {
+            if (book.getIsbn() == null) {
+                throw new IllegalArgumentException("Books are upserted by ISBN, '" + book.getTitle() + "' has none");
+            }
+            booksByIsbn.put(book.getIsbn(), book);
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        session.flush();
+
+        int batchSize = batchSize(session);
+        List<Book> unique = new ArrayList<>(booksByIsbn.values());
+        List<Long> writtenIds = new ArrayList<>();
+        UpsertResult result = new UpsertResult(0, 0, 0);
+        for (int from = 0; from < unique.size(); from += batchSize) {
+            List<Book> chunk = unique.subList(from, Math.min(unique.size(), from + batchSize));
+            result = result.plus(upsertChunk(entityManager, session, persister, chunk, writtenIds));
+        }
+        session.clear();
+        if (!writtenIds.isEmpty()) {
+            evictBookCaches(entityManager.getEntityManagerFactory());
+        }
+        books.forEach(book -> book.setId(booksByIsbn.get(book.getIsbn()).getId()));
+        return new Outcome(result, writtenIds);
+    }
+
+    private static UpsertResult upsertChunk(EntityManager entityManager, SessionImplementor session,
+                                            EntityPersister persister, List<Book> chunk, List<Long> writtenIds) {
+        Map<String, Object[]> existing = new LinkedHashMap<>();
+        entityManager.createQuery("SELECT b.isbn, b.id, b.title, b.publisher, b.author.id FROM Book b WHERE b.isbn IN :isbns",
+                Object[].class)
+            .setParameter("isbns", chunk.stream().map(Book::getIsbn).toList())
+            .getResultList()
+            .forEach(row -> existing.put((String) row[0], row));
+
+        List<Book> writes = new ArrayList<>(chunk.size());
+        List<Book> inserts = new ArrayList<>();
+        int updated = 0;
+        for (Book book : chunk) {
+            Object[] row = existing.get(book.getIsbn());
+            if (row == null) {
+                book.setId((Long) ((BeforeExecutionGenerator) persister.getGenerator())
+                    .generate(session, book, null, EventType.INSERT));
+                writes.add(book);
+                inserts.add(book);
+            } else {
+                book.setId((Long) row[1]);
+                if (!Objects.equals(book.getTitle(), row[2]) || !Objects.equals(book.getPublisher(), row[3])
+                    || !Objects.equals(book.getAuthorId(), row[4])) {
+                    writes.add(book);
+                    updated++;
+                }
+            }
+        }
+        int updatedInstead = 0;
+        if (!writes.isEmpty()) {
+            session.doWork(connection -> executeBatch(connection, writes));
+            updatedInstead = readBackInsertedIds(entityManager, inserts);
+            writes.forEach(book -> writtenIds.add(book.getId()));
+        }
+        int inserted = inserts.size() - updatedInstead;
+        updated += updatedInstead;
+        return new UpsertResult(inserted, updated, chunk.size() - inserted - updated);
+    }
+
+    // a book whose row has another id was inserted concurrently and the upsert updated it, returns how many there were
+    private static int readBackInsertedIds(EntityManager entityManager, List<Book> inserts) {
+        if (inserts.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> ids = new LinkedHashMap<>();
+        entityManager.createQuery("SELECT b.isbn, b.id FROM Book b WHERE b.isbn IN :isbns", Object[].class)
+            .setParameter("isbns", inserts.stream().map(Book::getIsbn).toList())
+            .getResultList()
+            .forEach(row -> ids.put((String) row[0], (Long) row[1]));
+        int updatedInstead = 0;
+        for (Book book : inserts) {
+            Long id = ids.get(book.getIsbn());
+            if (!book.getId().equals(id)) {
+                book.setId(id);
+                updatedInstead++;
+            }
+        }
+        return updatedInstead;
+    }
+
+    private static void evictBookCaches(EntityManagerFactory entityManagerFactory) {
+        Cache cache = entityManagerFactory.getCache();
+        Runnable eviction = () -> {
+            cache.evict(Book.class);
+            cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(Book.QUERY_CACHE_REGION);
+        };
+        eviction.run();
+        // a concurrent reader could cache the rows that are still committed until then
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static int batchSize(SessionImplementor session) {
+        int batchSize = session.getFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    private static void executeBatch(Connection connection, List<Book> writes) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        String sql = switch (product) {
+            case "MySQL" -> MYSQL_UPSERT;
+            case "H2" -> H2_UPSERT;
+            default -> throw new UnsupportedOperationException("No upsert statement for " + product);
+        };
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Book book : writes) {
+                statement.setLong(1, book.getId());
+                statement.setString(2, book.getIsbn());
+                statement.setString(3, book.getTitle());
+                statement.setString(4, book.getPublisher());
+                if (book.getAuthorId() != null) {
+                    statement.setLong(5, book.getAuthorId());
+                } else {
+                    statement.setNull(5, Types.BIGINT);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * @param writtenIds the inserted and updated books
+     */
+    record Outcome(UpsertResult result, List<Long> writtenIds) {
+    }
+}
@@ -0,0 +1,75 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs every task on its own virtual thread, but lets at most {@code maxConcurrency} of them run at the same time, so
+ * concurrent queries never wait for more connections than the pool has. Waiting tasks park their virtual thread on
+ * the semaphore instead of holding a platform thread.
+ * <p>
+ * This is deliberately not a {@link java.util.concurrent.Executor}, an executor bean would replace the application task
+ * executor of Spring Boot.
+ */
+public final class BoundedVirtualThreadExecutor implements AutoCloseable {
+
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final AtomicLong completed = new AtomicLong();
+
+    public BoundedVirtualThreadExecutor(String name, int maxConcurrency, MeterRegistry meterRegistry) {
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        Gauge.builder("dao.async.executor.active", this, BoundedVirtualThreadExecutor::getActiveCount)
+            .tag("name", name)
+            .register(meterRegistry);
+        Gauge.builder("dao.async.executor.queued", this, BoundedVirtualThreadExecutor::getQueuedCount)
+            .tag("name", name)
+            .register(meterRegistry);
+        Gauge.builder("dao.async.executor.max.concurrency", this, BoundedVirtualThreadExecutor::getMaxConcurrency)
+            .tag("name", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("dao.async.executor.completed", completed, AtomicLong::get)
+            .tag("name", name)
+            .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+                completed.incrementAndGet();
+            }
+        }, virtualThreads);
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void close() {
+        virtualThreads.close();
+    }
+}
@@ -0,0 +1,49 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a cache-aside cache from holding on to a snapshot that was read before a concurrent write committed.
+ * <p>
+ * Every eviction moves a generation forward. A reader remembers the generation before it loads and drops its own put
+ * when an eviction happened in between, so a load that raced with a write is not cached for the whole time to live.
+ * Inside a transaction the eviction runs right away, so the transaction reads its own writes, and again after the
+ * transaction completed, which removes what other readers cached from the rows that were still committed before.
+ */
+final class CacheInvalidation {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    long startRead() {
+        return generation.get();
+    }
+
+    <K, V> void put(Cache<K, V> cache, K key, V value, long readStartedAt) {
+        cache.put(key, value);
+        // an eviction after the check removes the entry itself, one before it is caught here
+        if (generation.get() != readStartedAt) {
+            cache.invalidate(key);
+        }
+    }
+
+    void evict(Runnable eviction) {
+        evictNow(eviction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(eviction);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+    }
+}
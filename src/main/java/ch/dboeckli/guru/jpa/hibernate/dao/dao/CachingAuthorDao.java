@@ -0,0 +1,165 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of an {@link AuthorDao}, works like {@link CachingBookDao}: snapshots by id, the name
+ * lookup only maps the name to an id and is verified against the snapshot, evictions go through a
+ * {@link CacheInvalidation}.
+ */
+@Observed(name = DaoObservations.NAME, lowCardinalityKeyValues = {DaoObservations.DAO, "authorDao"})
+public class CachingAuthorDao implements AuthorDao {
+
+    private static final String DAO_NAME = "authorDao";
+
+    private final AuthorDao delegate;
+    private final Cache<Long, AuthorSnapshot> authorsById;
+    private final Cache<NameKey, Long> authorIdsByName;
+    private final DaoCacheStatistics getByIdStatistics;
+    private final DaoCacheStatistics findAuthorByNameStatistics;
+    private final CacheInvalidation invalidation = new CacheInvalidation();
+
+    public CachingAuthorDao(AuthorDao delegate, long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.authorsById = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build();
+        this.authorIdsByName = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authorsById, DAO_NAME + ".byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, authorIdsByName, DAO_NAME + ".byName");
+        this.getByIdStatistics = new DaoCacheStatistics(meterRegistry, DAO_NAME, "getById");
+        this.findAuthorByNameStatistics = new DaoCacheStatistics(meterRegistry, DAO_NAME, "findAuthorByName");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Author getById(Long id) {
+        AuthorSnapshot snapshot = authorsById.getIfPresent(id);
+        if (snapshot != null) {
+            getByIdStatistics.hit();
+            return snapshot.toAuthor();
+        }
+        getByIdStatistics.miss();
+        long readStartedAt = invalidation.startRead();
+        // getById returns a lazy reference, taking the snapshot initializes it
+        return cache(delegate.getById(id), readStartedAt).toAuthor();
+    }
+
+    @Override
+    public List<Author> getByIds(Collection<Long> ids) {
+        return delegate.getByIds(ids);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return delegate.findVersionById(id);
+    }
+
+    @Override
+    public Author getByIdWithBooks(Long id) {
+        return delegate.getByIdWithBooks(id);
+    }
+
+    @Override
+    public Author findAuthorByName(String firstName, String lastName) {
+        NameKey name = new NameKey(firstName, lastName);
+        Long id = authorIdsByName.getIfPresent(name);
+        AuthorSnapshot snapshot = id == null ? null : authorsById.getIfPresent(id);
+        if (snapshot != null && Objects.equals(snapshot.firstName(), firstName) && Objects.equals(snapshot.lastName(), lastName)) {
+            findAuthorByNameStatistics.hit();
+            return snapshot.toAuthor();
+        }
+        findAuthorByNameStatistics.miss();
+        authorIdsByName.invalidate(name);
+        long readStartedAt = invalidation.startRead();
+        AuthorSnapshot loaded = cache(delegate.findAuthorByName(firstName, lastName), readStartedAt);
+        invalidation.put(authorIdsByName, name, loaded.id(), readStartedAt);
+        return loaded.toAuthor();
+    }
+
+    @Override
+    public List<Author> findAllAuthorsByLastName(String lastname, Pageable pageable) {
+        return delegate.findAllAuthorsByLastName(lastname, pageable);
+    }
+
+    @Override
+    public List<AuthorName> findAllAuthorNamesByLastName(String lastname, Pageable pageable) {
+        return delegate.findAllAuthorNamesByLastName(lastname, pageable);
+    }
+
+    @Override
+    public long countAuthorsByLastName(String lastname) {
+        return delegate.countAuthorsByLastName(lastname);
+    }
+
+    @Override
+    public List<AuthorName> completeAuthorNames(String prefix, int limit) {
+        return delegate.completeAuthorNames(prefix, limit);
+    }
+
+    @Override
+    public Author saveNewAuthor(Author author) {
+        Author saved = delegate.saveNewAuthor(author);
+        evict(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Author> saveAllNewAuthors(Collection<Author> authors) {
+        List<Author> saved = delegate.saveAllNewAuthors(authors);
+        saved.forEach(this::evict);
+        return saved;
+    }
+
+    @Override
+    public Author updateAuthor(Author author) {
+        Author updated = delegate.updateAuthor(author);
+        evict(author);
+        return updated;
+    }
+
+    @Override
+    public int patchAuthor(Long id, AuthorPatch patch) {
+        int updated = delegate.patchAuthor(id, patch);
+        invalidation.evict(() -> authorsById.invalidate(id));
+        return updated;
+    }
+
+    @Override
+    public void deleteAuthorById(Long id) {
+        delegate.deleteAuthorById(id);
+        invalidation.evict(() -> authorsById.invalidate(id));
+    }
+
+    private AuthorSnapshot cache(Author author, long readStartedAt) {
+        AuthorSnapshot snapshot = AuthorSnapshot.of(author);
+        invalidation.put(authorsById, snapshot.id(), snapshot, readStartedAt);
+        return snapshot;
+    }
+
+    private void evict(Author author) {
+        Long id = author.getId();
+        NameKey name = new NameKey(author.getFirstName(), author.getLastName());
+        invalidation.evict(() -> {
+            if (id != null) {
+                authorsById.invalidate(id);
+            }
+            authorIdsByName.invalidate(name);
+        });
+    }
+
+    private record NameKey(String firstName, String lastName) {
+    }
+}
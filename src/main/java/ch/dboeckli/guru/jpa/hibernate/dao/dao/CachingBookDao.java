@@ -0,0 +1,248 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of a {@link BookDao}, independent of the Hibernate second-level cache.
+ * <p>
+ * Books are kept by id as {@link BookSnapshot}s in a bounded Caffeine (W-TinyLFU) cache. The title lookup only maps
+ * title to id and is verified against the snapshot on every hit, so a renamed book never answers for its old title and
+ * writes only have to evict the id. Bulk operations clear the whole cache. Writes evict again once their transaction
+ * completed and a load that overlapped with an eviction is not cached, see {@link CacheInvalidation}.
+ */
+@Observed(name = DaoObservations.NAME, lowCardinalityKeyValues = {DaoObservations.DAO, "bookDao"})
+public class CachingBookDao implements BookDao {
+
+    private static final String DAO_NAME = "bookDao";
+
+    private final BookDao delegate;
+    private final Cache<Long, BookSnapshot> booksById;
+    private final Cache<String, Long> bookIdsByTitle;
+    private final DaoCacheStatistics getByIdStatistics;
+    private final DaoCacheStatistics findBookByTitleStatistics;
+    private final CacheInvalidation invalidation = new CacheInvalidation();
+
+    public CachingBookDao(BookDao delegate, long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.booksById = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build();
+        this.bookIdsByTitle = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, DAO_NAME + ".byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByTitle, DAO_NAME + ".byTitle");
+        this.getByIdStatistics = new DaoCacheStatistics(meterRegistry, DAO_NAME, "getById");
+        this.findBookByTitleStatistics = new DaoCacheStatistics(meterRegistry, DAO_NAME, "findBookByTitle");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book getById(Long id) {
+        BookSnapshot snapshot = booksById.getIfPresent(id);
+        if (snapshot != null) {
+            getByIdStatistics.hit();
+            return snapshot.toBook();
+        }
+        getByIdStatistics.miss();
+        long readStartedAt = invalidation.startRead();
+        // getById returns a lazy reference, taking the snapshot initializes it
+        return cache(delegate.getById(id), readStartedAt).toBook();
+    }
+
+    @Override
+    public List<Book> getByIds(Collection<Long> ids) {
+        return delegate.getByIds(ids);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return delegate.findVersionById(id);
+    }
+
+    @Override
+    public Book findBookByTitle(String title) {
+        if (title == null) {
+            return delegate.findBookByTitle(null);
+        }
+        Long id = bookIdsByTitle.getIfPresent(title);
+        BookSnapshot snapshot = id == null ? null : booksById.getIfPresent(id);
+        if (snapshot != null && Objects.equals(snapshot.title(), title)) {
+            findBookByTitleStatistics.hit();
+            return snapshot.toBook();
+        }
+        findBookByTitleStatistics.miss();
+        bookIdsByTitle.invalidate(title);
+        long readStartedAt = invalidation.startRead();
+        BookSnapshot loaded = cache(delegate.findBookByTitle(title), readStartedAt);
+        invalidation.put(bookIdsByTitle, title, loaded.id(), readStartedAt);
+        return loaded.toBook();
+    }
+
+    @Override
+    public Book getByIdWithAuthor(Long id) {
+        return delegate.getByIdWithAuthor(id);
+    }
+
+    @Override
+    public Book findBookWithAuthorByTitle(String title) {
+        return delegate.findBookWithAuthorByTitle(title);
+    }
+
+    @Override
+    public List<Book> findAllBooks() {
+        return delegate.findAllBooks();
+    }
+
+    @Override
+    public List<Book> findAllBooks(int pageSize, int offset) {
+        return delegate.findAllBooks(pageSize, offset);
+    }
+
+    @Override
+    public List<Book> findAllBooks(Pageable pageable) {
+        return delegate.findAllBooks(pageable);
+    }
+
+    @Override
+    public List<Book> findAllBooksSortByTitle(Pageable pageable) {
+        return delegate.findAllBooksSortByTitle(pageable);
+    }
+
+    @Override
+    public List<Book> findAllBooksWithAuthor(Pageable pageable) {
+        return delegate.findAllBooksWithAuthor(pageable);
+    }
+
+    @Override
+    public List<BookSummary> findAllBookSummaries(Pageable pageable) {
+        return delegate.findAllBookSummaries(pageable);
+    }
+
+    @Override
+    public long countAllBooks() {
+        return delegate.countAllBooks();
+    }
+
+    @Override
+    public long exportAllBooks(Consumer<Book> consumer) {
+        return delegate.exportAllBooks(consumer);
+    }
+
+    @Override
+    public List<Book> searchBooks(String query, Pageable pageable) {
+        return delegate.searchBooks(query, pageable);
+    }
+
+    @Override
+    public KeysetPage<Book> findAllBooks(String continuationToken, int pageSize) {
+        return delegate.findAllBooks(continuationToken, pageSize);
+    }
+
+    @Override
+    public KeysetPage<Book> findAllBooksSortByTitle(String continuationToken, int pageSize) {
+        return delegate.findAllBooksSortByTitle(continuationToken, pageSize);
+    }
+
+    @Override
+    public Book saveNewBook(Book book) {
+        Book saved = delegate.saveNewBook(book);
+        evict(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Book> saveAllNewBooks(Collection<Book> books) {
+        List<Book> saved = delegate.saveAllNewBooks(books);
+        saved.forEach(this::evict);
+        return saved;
+    }
+
+    @Override
+    public UpsertResult upsertBooksByIsbn(Collection<Book> books) {
+        UpsertResult result = delegate.upsertBooksByIsbn(books);
+        books.forEach(this::evict);
+        return result;
+    }
+
+    @Override
+    public Book updateBook(Book book) {
+        Book updated = delegate.updateBook(book);
+        evict(book);
+        return updated;
+    }
+
+    @Override
+    public int patchBook(Long id, BookPatch patch) {
+        int updated = delegate.patchBook(id, patch);
+        invalidation.evict(() -> booksById.invalidate(id));
+        return updated;
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        delegate.deleteBookById(id);
+        invalidation.evict(() -> booksById.invalidate(id));
+    }
+
+    @Override
+    public int reassignBooksToAuthor(Long fromAuthorId, Long toAuthorId) {
+        return invalidateAllAfter(delegate.reassignBooksToAuthor(fromAuthorId, toAuthorId));
+    }
+
+    @Override
+    public int renamePublisher(String oldPublisher, String newPublisher) {
+        return invalidateAllAfter(delegate.renamePublisher(oldPublisher, newPublisher));
+    }
+
+    @Override
+    public int deleteBooksByAuthorId(Long authorId) {
+        return invalidateAllAfter(delegate.deleteBooksByAuthorId(authorId));
+    }
+
+    @Override
+    public int deleteBooksByIds(Collection<Long> ids) {
+        int deleted = delegate.deleteBooksByIds(ids);
+        List<Long> deletedIds = List.copyOf(ids);
+        invalidation.evict(() -> booksById.invalidateAll(deletedIds));
+        return deleted;
+    }
+
+    private BookSnapshot cache(Book book, long readStartedAt) {
+        BookSnapshot snapshot = BookSnapshot.of(book);
+        invalidation.put(booksById, snapshot.id(), snapshot, readStartedAt);
+        return snapshot;
+    }
+
+    private void evict(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        invalidation.evict(() -> {
+            if (id != null) {
+                booksById.invalidate(id);
+            }
+            if (title != null) {
+                bookIdsByTitle.invalidate(title);
+            }
+        });
+    }
+
+    private int invalidateAllAfter(int affectedRows) {
+        invalidation.evict(() -> {
+            booksById.invalidateAll();
+            bookIdsByTitle.invalidateAll();
+        });
+        return affectedRows;
+    }
+}
@@ -0,0 +1,29 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Runs every method of a {@link ConcurrencyLimited} DAO under a permit of the {@link AdaptiveConcurrencyLimiter}.
+ * Ordered before the transaction interceptor, so a call waits for its permit before it holds a connection.
+ */
+@Aspect
+@Order(0)
+@RequiredArgsConstructor
+public class ConcurrencyLimitAspect {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Around("@within(ch.dboeckli.guru.jpa.hibernate.dao.dao.ConcurrencyLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            permit.close();
+        }
+    }
+}
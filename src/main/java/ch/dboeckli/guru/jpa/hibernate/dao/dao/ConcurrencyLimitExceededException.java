@@ -0,0 +1,20 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a DAO call finds the {@link AdaptiveConcurrencyLimiter} at its limit and could not get a permit in time.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
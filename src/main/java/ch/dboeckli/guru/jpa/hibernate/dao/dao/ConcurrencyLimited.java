@@ -0,0 +1,17 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a DAO whose methods have to pass the {@link AdaptiveConcurrencyLimiter} before they may touch the database.
+ * Only the implementations that talk to the database carry it, decorators in front of them must not.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimited {
+}
@@ -0,0 +1,39 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hit and miss counters of one cached DAO method, published as {@code dao.cache.gets} and {@code dao.cache.hit.ratio}.
+ */
+final class DaoCacheStatistics {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    DaoCacheStatistics(MeterRegistry meterRegistry, String dao, String method) {
+        this.hits = Counter.builder("dao.cache.gets")
+            .tag("dao", dao).tag("method", method).tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("dao.cache.gets")
+            .tag("dao", dao).tag("method", method).tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("dao.cache.hit.ratio", this, DaoCacheStatistics::hitRatio)
+            .tag("dao", dao).tag("method", method)
+            .register(meterRegistry);
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+}
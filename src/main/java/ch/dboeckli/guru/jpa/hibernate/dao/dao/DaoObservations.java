@@ -0,0 +1,14 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+/**
+ * Names of the {@link io.micrometer.observation.annotation.Observed} DAO observations. Each DAO method call is timed as
+ * {@code dao.method}, tagged with the DAO, the implementing class and the method.
+ */
+public final class DaoObservations {
+
+    public static final String NAME = "dao.method";
+    public static final String DAO = "dao";
+
+    private DaoObservations() {
+    }
+}
@@ -0,0 +1,14 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) listing. {@code nextToken} is an opaque continuation token to pass to the next call, or
+ * {@code null} when there are no more rows.
+ */
+public record KeysetPage<T>(List<T> content, String nextToken) {
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
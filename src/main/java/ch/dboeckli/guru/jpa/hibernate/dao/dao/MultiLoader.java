@@ -0,0 +1,58 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.BatchSize;
+import org.hibernate.OrderingMode;
+import org.hibernate.Session;
+import org.hibernate.SessionCheckMode;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Loads entities by a collection of ids with Hibernate multi-load, in chunks of {@code hibernate.default_batch_fetch_size}
+ * ids per {@code IN} list. Entities already in the persistence context are not selected again, with
+ * {@code hibernate.query.in_clause_parameter_padding} the last chunk is padded to the next power of two so the number of
+ * distinct statements stays small.
+ */
+final class MultiLoader {
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private MultiLoader() {
+    }
+
+    /**
+     * The entities in the order of their first id, ids without an entity are skipped.
+     */
+    static <T> List<T> loadAll(EntityManager entityManager, Class<T> entityClass, Collection<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must not contain null");
+        }
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        List<T> loaded = entityManager.unwrap(Session.class).findMultiple(entityClass, distinctIds,
+            new BatchSize(batchSize(entityManager)), SessionCheckMode.ENABLED, OrderingMode.ORDERED);
+        List<T> found = new ArrayList<>(loaded.size());
+        for (T entity : loaded) {
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    private static int batchSize(EntityManager entityManager) {
+        int batchSize = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getSessionFactoryOptions()
+            .getDefaultBatchFetchSize();
+        return batchSize > 1 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+}
@@ -0,0 +1,113 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.retry.RetryException;
+import org.springframework.core.retry.RetryListener;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.core.retry.Retryable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Repeats a {@link RetryOnConflict} method that lost an optimistic locking race, with an exponential, jittered backoff
+ * between the attempts. Ordered before the concurrency limit and the transaction interceptor, so every attempt runs in
+ * a new transaction and no permit or connection is held while backing off. A call that joins a transaction of its
+ * caller is not retried, the persistence context of that transaction still holds the stale entity.
+ * <p>
+ * Counts the conflicts, the retries and whether a retried call recovered or gave up.
+ */
+@Aspect
+@Order(-1)
+@Slf4j
+public class OptimisticLockRetryAspect {
+
+    private final RetryTemplate retryTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticLockRetryAspect(long maxRetries, Duration delay, double multiplier, Duration maxDelay,
+                                     Duration jitter, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+            .includes(OptimisticLockingFailureException.class, OptimisticLockException.class)
+            .excludes(StaleVersionException.class)
+            .maxRetries(maxRetries)
+            .delay(delay)
+            .multiplier(multiplier)
+            .maxDelay(maxDelay)
+            .jitter(jitter)
+            .build();
+        this.retryTemplate = new RetryTemplate(retryPolicy);
+        this.retryTemplate.setRetryListener(new MetricsListener());
+    }
+
+    @Around("@annotation(ch.dboeckli.guru.jpa.hibernate.dao.dao.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        try {
+            return retryTemplate.execute(new Retryable<>() {
+                @Override
+                public Object execute() throws Throwable {
+                    try {
+                        return joinPoint.proceed();
+                    } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                        counter("dao.optimistic.lock.conflicts", method, "Optimistic locking conflicts of DAO calls")
+                            .increment();
+                        throw e;
+                    }
+                }
+
+                @Override
+                public String getName() {
+                    return method;
+                }
+            });
+        } catch (RetryException e) {
+            throw e.getLastException();
+        }
+    }
+
+    private Counter counter(String name, String method, String description) {
+        return Counter.builder(name).description(description).tag("method", method).register(meterRegistry);
+    }
+
+    private Counter outcome(String method, String outcome) {
+        return Counter.builder("dao.optimistic.lock.retried.calls")
+            .description("DAO calls that were retried after a conflict, by whether they recovered")
+            .tag("method", method)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private final class MetricsListener implements RetryListener {
+
+        @Override
+        public void beforeRetry(RetryPolicy retryPolicy, Retryable<?> retryable) {
+            counter("dao.optimistic.lock.retries", retryable.getName(), "Retries of DAO calls after a conflict")
+                .increment();
+        }
+
+        @Override
+        public void onRetrySuccess(RetryPolicy retryPolicy, Retryable<?> retryable, Object result) {
+            outcome(retryable.getName(), "recovered").increment();
+        }
+
+        @Override
+        public void onRetryPolicyExhaustion(RetryPolicy retryPolicy, Retryable<?> retryable, RetryException exception) {
+            outcome(retryable.getName(), "exhausted").increment();
+            log.warn("{} still conflicted after {} retries", retryable.getName(), exception.getRetryCount());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Builds a single {@code UPDATE ... WHERE id = ?} statement that only contains the attributes which were set, so no
+ * SELECT is needed and unchanged columns are not written. The version of a versioned entity is incremented.
+ */
+final class PartialUpdate<T> {
+
+    private final EntityManager entityManager;
+    private final Class<T> entityType;
+    private final CriteriaUpdate<T> update;
+    private final Root<T> root;
+    private boolean empty = true;
+
+    private PartialUpdate(EntityManager entityManager, Class<T> entityType) {
+        this.entityManager = entityManager;
+        this.entityType = entityType;
+        this.update = entityManager.getCriteriaBuilder().createCriteriaUpdate(entityType);
+        this.root = update.from(entityType);
+    }
+
+    static <T> PartialUpdate<T> of(EntityManager entityManager, Class<T> entityType) {
+        return new PartialUpdate<>(entityManager, entityType);
+    }
+
+    PartialUpdate<T> setIfPresent(String attribute, Object value) {
+        if (value != null) {
+            update.set(root.get(attribute), value);
+            empty = false;
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of updated rows, 0 if the row does not exist or there was nothing to update
+     */
+    int executeForId(Object id) {
+        if (empty) {
+            return 0;
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        update.where(criteriaBuilder.equal(root.get("id"), id));
+        // a bulk update does not increment the version by itself
+        EntityType<T> entity = entityManager.getMetamodel().entity(entityType);
+        if (entity.hasVersionAttribute()) {
+            Path<Long> version = root.get(entity.getVersion(Long.class));
+            update.set(version, criteriaBuilder.sum(version, 1L));
+        }
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        // the bulk update only invalidates the second-level cache when the transaction completes
+        entityManager.getEntityManagerFactory().getCache().evict(entityType, id);
+        return updated;
+    }
+}
@@ -0,0 +1,17 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-modify-write DAO method that is retried by the {@link OptimisticLockRetryAspect} when a concurrent
+ * transaction changed the entity in between. The method must be safe to repeat and run in its own transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
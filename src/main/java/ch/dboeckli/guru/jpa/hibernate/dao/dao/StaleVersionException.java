@@ -0,0 +1,20 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.Serial;
+
+/**
+ * The caller asked to update a version of an entity that is no longer the current one. Unlike a conflict detected on
+ * flush, repeating the call cannot succeed, so it is never retried.
+ */
+public class StaleVersionException extends ObjectOptimisticLockingFailureException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public StaleVersionException(Class<?> entityType, Object id, Long expectedVersion, Long actualVersion) {
+        super(entityType, id, "%s %s has version %d, expected %d"
+            .formatted(entityType.getSimpleName(), id, actualVersion, expectedVersion), null);
+    }
+}
@@ -0,0 +1,11 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+/**
+ * Outcome of an upsert, unchanged rows already held the given values and were not written.
+ */
+public record UpsertResult(int inserted, int updated, int unchanged) {
+
+    UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+    }
+}
@@ -4,22 +4,42 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @NoArgsConstructor
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Author.CACHE_REGION)
 public class Author {
 
+    public static final String CACHE_REGION = "author";
+    public static final String QUERY_CACHE_REGION = "author-queries";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "author_id_generator")
+    @TableGenerator(name = "author_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "author", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
+    @FullTextField
     private String firstName;
+    @FullTextField
     private String lastName;
 
+    @OneToMany(mappedBy = "author")
+    private Set<Book> books = new HashSet<>();
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -4,28 +4,60 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import java.util.Objects;
 
+import static ch.dboeckli.guru.jpa.hibernate.dao.domain.Book.CACHE_REGION;
 import static ch.dboeckli.guru.jpa.hibernate.dao.domain.Book.JPA_QUERY_NAME;
+import static ch.dboeckli.guru.jpa.hibernate.dao.domain.Book.QUERY_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
 
 @Entity
 @NoArgsConstructor
 @Getter
 @Setter
-@NamedQuery(name = JPA_QUERY_NAME, query = "FROM Book b where b.title = :title")
+@NamedQuery(name = JPA_QUERY_NAME, query = "FROM Book b where b.title = :title", hints = {
+    @QueryHint(name = HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CACHE_REGION)
+@Indexed
 public class Book {
 
     public static final String JPA_QUERY_NAME = "Book.jpaNamed";
+    public static final String CACHE_REGION = "book";
+    public static final String QUERY_CACHE_REGION = "book-queries";
+    public static final String TITLE_SORT_FIELD = "title_sort";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_id_generator")
+    @TableGenerator(name = "book_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "book", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
+    @FullTextField
+    @KeywordField(name = TITLE_SORT_FIELD, sortable = Sortable.YES)
     private String title;
     private String isbn;
+    @FullTextField
     private String publisher;
-    private Long authorId;
+
+    @IndexedEmbedded(includePaths = {"firstName", "lastName"})
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_id")
+    private Author author;
 
     public Book(String title, String isbn, String publisher) {
         this.title = title;
@@ -33,6 +65,13 @@ public class Book {
         this.publisher = publisher;
     }
 
+    /**
+     * Reads the foreign key without initializing a lazy author.
+     */
+    public Long getAuthorId() {
+        return author != null ? author.getId() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
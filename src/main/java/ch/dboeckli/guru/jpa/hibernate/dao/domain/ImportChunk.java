@@ -0,0 +1,49 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.domain;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * Checkpoint of an import: a chunk of rows that was committed, written in the same transaction as its rows.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+public class ImportChunk {
+
+    @EmbeddedId
+    private Key id;
+
+    private int chunkSize;
+    private int rowCount;
+
+    public ImportChunk(String importId, long chunkNo, int chunkSize, int rowCount) {
+        this.id = new Key(importId, chunkNo);
+        this.chunkSize = chunkSize;
+        this.rowCount = rowCount;
+    }
+
+    @Embeddable
+    public record Key(String importId, long chunkNo) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ImportChunk that = (ImportChunk) o;
+
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+}
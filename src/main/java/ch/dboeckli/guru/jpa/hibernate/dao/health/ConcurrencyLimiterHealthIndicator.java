@@ -0,0 +1,70 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.health;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.health.contributor.AbstractHealthIndicator;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.Status;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Part of the readiness group: reports {@code OUT_OF_SERVICE} while the DAO limiter rejects a sizeable share of the
+ * calls, so Kubernetes stops routing traffic to a pod whose connection pool is saturated. A short burst of rejections
+ * stays below the minimum count and does not take every pod of a busy service out at once.
+ * <p>
+ * Each check compares the limiter's counters with the ones of the latest check that lies at least the rejection
+ * window back, or with the oldest one while the pod is younger than that.
+ */
+public class ConcurrencyLimiterHealthIndicator extends AbstractHealthIndicator {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long rejectionWindowNanos;
+    private final double rejectionRatio;
+    private final int minRejections;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    public ConcurrencyLimiterHealthIndicator(AdaptiveConcurrencyLimiter limiter, Duration rejectionWindow,
+                                             double rejectionRatio, int minRejections) {
+        super("DAO concurrency limiter health check failed");
+        this.limiter = limiter;
+        this.rejectionWindowNanos = rejectionWindow.toNanos();
+        this.rejectionRatio = rejectionRatio;
+        this.minRejections = minRejections;
+        samples.add(new Sample(System.nanoTime(), limiter.getCalls(), limiter.getRejected()));
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        Sample since;
+        Sample now;
+        synchronized (samples) {
+            now = new Sample(System.nanoTime(), limiter.getCalls(), limiter.getRejected());
+            samples.addLast(now);
+            while (samples.size() > 2 && now.nanos() - secondOldest().nanos() >= rejectionWindowNanos) {
+                samples.removeFirst();
+            }
+            since = samples.getFirst();
+        }
+        long calls = now.calls() - since.calls();
+        long rejected = now.rejected() - since.rejected();
+        boolean saturated = rejected >= minRejections && rejected >= rejectionRatio * calls;
+        builder.status(saturated ? Status.OUT_OF_SERVICE : Status.UP)
+            .withDetail("limit", limiter.getLimit())
+            .withDetail("inFlight", limiter.getInFlight())
+            .withDetail("queued", limiter.getQueued())
+            .withDetail("rejected", limiter.getRejected())
+            .withDetail("recentCalls", calls)
+            .withDetail("recentRejected", rejected);
+    }
+
+    private Sample secondOldest() {
+        var iterator = samples.iterator();
+        iterator.next();
+        return iterator.next();
+    }
+
+    private record Sample(long nanos, long calls, long rejected) {
+    }
+}
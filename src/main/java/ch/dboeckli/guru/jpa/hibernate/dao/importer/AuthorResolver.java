@@ -0,0 +1,118 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+/**
+ * Maps the author names of the imported rows to author ids. Known names come from a bounded cache, the misses of a
+ * chunk are looked up by last name, or by first name for the authors without one, and the authors that do not exist
+ * yet are inserted in one batch.
+ * <p>
+ * Every import run gets a resolver of its own, so an author renamed or deleted in between is not resolved from a stale
+ * cache by later runs. The runs share the lock around looking up and creating the misses, so two concurrent imports
+ * never create the same author twice. Within a run only the parser thread resolves.
+ */
+class AuthorResolver {
+
+    private final AuthorDao authorDao;
+    private final AuthorRepository authorRepository;
+    private final Lock creationLock;
+    private final Cache<AuthorKey, Long> authorIds;
+
+    AuthorResolver(AuthorDao authorDao, AuthorRepository authorRepository, int cacheSize, Lock creationLock) {
+        this.authorDao = authorDao;
+        this.authorRepository = authorRepository;
+        this.creationLock = creationLock;
+        this.authorIds = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * @return the author id per distinct name of the rows
+     */
+    Map<AuthorKey, Long> resolve(Collection<ImportRow> rows) {
+        Set<AuthorKey> keys = rows.stream()
+            .filter(ImportRow::hasAuthor)
+            .map(AuthorKey::of)
+            .collect(Collectors.toSet());
+        Map<AuthorKey, Long> resolved = new HashMap<>(authorIds.getAllPresent(keys));
+        if (resolved.size() < keys.size()) {
+            List<AuthorKey> misses = keys.stream().filter(key -> !resolved.containsKey(key)).toList();
+            creationLock.lock();
+            try {
+                resolved.putAll(findOrCreate(misses));
+            } finally {
+                creationLock.unlock();
+            }
+            authorIds.putAll(resolved);
+        }
+        return resolved;
+    }
+
+    private Map<AuthorKey, Long> findOrCreate(List<AuthorKey> misses) {
+        Set<String> lastNames = misses.stream().map(AuthorKey::lastName).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> firstNamesWithoutLastName = misses.stream().filter(key -> key.lastName() == null)
+            .map(AuthorKey::firstName).collect(Collectors.toSet());
+        List<AuthorName> existing = new ArrayList<>();
+        if (!lastNames.isEmpty()) {
+            existing.addAll(authorRepository.findAuthorNameByLastNameIn(lastNames));
+        }
+        if (!firstNamesWithoutLastName.isEmpty()) {
+            existing.addAll(authorRepository.findAuthorNameByLastNameIsNullAndFirstNameIn(firstNamesWithoutLastName));
+        }
+        Map<AuthorKey, Long> found = new HashMap<>();
+        // the lowest id wins if the same name was stored twice
+        existing.forEach(name -> found.merge(AuthorKey.of(name), name.id(), Math::min));
+        Map<AuthorKey, Author> created = new LinkedHashMap<>();
+        for (AuthorKey miss : misses) {
+            if (!found.containsKey(miss)) {
+                created.put(miss, miss.toAuthor());
+            }
+        }
+        if (!created.isEmpty()) {
+            authorDao.saveAllNewAuthors(created.values());
+            created.forEach((key, author) -> found.put(key, author.getId()));
+        }
+        found.keySet().retainAll(misses);
+        return found;
+    }
+
+    long cachedAuthors() {
+        return authorIds.estimatedSize();
+    }
+
+    /**
+     * Author names are matched exactly, an absent first or last name only matches an absent one.
+     */
+    record AuthorKey(String firstName, String lastName) {
+
+        static AuthorKey of(ImportRow row) {
+            return new AuthorKey(row.authorFirstName(), row.authorLastName());
+        }
+
+        static AuthorKey of(AuthorName name) {
+            return new AuthorKey(name.firstName(), name.lastName());
+        }
+
+        Author toAuthor() {
+            Author author = new Author();
+            author.setFirstName(firstName);
+            author.setLastName(lastName);
+            return author;
+        }
+    }
+}
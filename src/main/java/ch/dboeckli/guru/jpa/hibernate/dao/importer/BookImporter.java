@@ -0,0 +1,289 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.ImportChunk;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.AuthorResolver.AuthorKey;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.ImportChunkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Imports books with their authors from a CSV or NDJSON stream. The calling thread parses the rows into chunks and
+ * resolves their authors, a fixed number of workers write the chunks concurrently, each one as a JDBC batch in its own
+ * transaction. At most {@code queueCapacity} chunks wait for a worker, the parser blocks beyond that, so memory stays
+ * bounded whatever the size of the input.
+ * <p>
+ * Every committed chunk is checkpointed in {@link ImportChunk} within its own transaction. Running an import again
+ * with the same id skips the chunks that were committed before and resumes with the others, as long as the input and
+ * the chunk size are the same. The first failure stops the import.
+ */
+@Slf4j
+public class BookImporter {
+
+    static final String IMPORT_SCOPE = "import";
+
+    private final BookDao bookDao;
+    private final AuthorDao authorDao;
+    private final AuthorRepository authorRepository;
+    private final int authorCacheSize;
+    private final Lock authorCreationLock = new ReentrantLock();
+    private final Set<AuthorResolver> activeAuthorResolvers = ConcurrentHashMap.newKeySet();
+    private final ImportChunkRepository importChunkRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<StatementBudget> statementBudget;
+    private final JsonMapper jsonMapper;
+    private final int chunkSize;
+    private final int workers;
+    private final int queueCapacity;
+
+    private final AtomicLong rowsInFlight = new AtomicLong();
+    private final Counter rowsParsed;
+    private final Counter rowsWritten;
+    private final Counter rowsSkipped;
+    private final Timer parseTimer;
+    private final Timer resolveTimer;
+    private final Timer queueTimer;
+    private final Timer writeTimer;
+
+    public BookImporter(BookDao bookDao, AuthorDao authorDao, AuthorRepository authorRepository,
+                        ImportChunkRepository importChunkRepository, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        ObjectProvider<StatementBudget> statementBudget, JsonMapper jsonMapper, int chunkSize,
+                        int workers, int queueCapacity, int authorCacheSize, MeterRegistry meterRegistry) {
+        this.bookDao = bookDao;
+        this.authorDao = authorDao;
+        this.authorRepository = authorRepository;
+        this.authorCacheSize = authorCacheSize;
+        this.importChunkRepository = importChunkRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statementBudget = statementBudget;
+        this.jsonMapper = jsonMapper;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.rowsParsed = rowsCounter("parsed", meterRegistry);
+        this.rowsWritten = rowsCounter("written", meterRegistry);
+        this.rowsSkipped = rowsCounter("skipped", meterRegistry);
+        this.parseTimer = stageTimer("parse", meterRegistry);
+        this.resolveTimer = stageTimer("resolve", meterRegistry);
+        this.queueTimer = stageTimer("queue", meterRegistry);
+        this.writeTimer = stageTimer("write", meterRegistry);
+        Gauge.builder("book.import.lag", rowsInFlight, AtomicLong::get)
+            .description("Rows parsed but not yet written")
+            .baseUnit("rows")
+            .register(meterRegistry);
+        Gauge.builder("book.import.author.cache.size", activeAuthorResolvers,
+                resolvers -> resolvers.stream().mapToLong(AuthorResolver::cachedAuthors).sum())
+            .description("Author ids cached by the running imports")
+            .register(meterRegistry);
+    }
+
+    public ImportResult importBooks(String importId, ImportFormat format, InputStream input) throws IOException {
+        long start = System.nanoTime();
+        Map<Long, ImportChunk> committed = committedChunks(importId);
+        Run run = new Run(importId, new AuthorResolver(authorDao, authorRepository, authorCacheSize, authorCreationLock));
+        activeAuthorResolvers.add(run.authorResolver);
+        RuntimeException parseFailure = null;
+        StatementBudget.Scope scope = openUnbudgeted(importId);
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("book-import-", 0).factory());
+             Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            RowReader rowReader = format.open(reader, jsonMapper);
+            Semaphore queue = new Semaphore(workers + queueCapacity);
+            try {
+                List<ImportRow> chunk;
+                long chunkNo = 0;
+                while (run.failure.get() == null && !(chunk = readChunk(rowReader)).isEmpty()) {
+                    chunkNo++;
+                    run.parsed += chunk.size();
+                    if (committed.containsKey(chunkNo)) {
+                        checkCommitted(committed.get(chunkNo), chunk);
+                        run.skipped += chunk.size();
+                        rowsSkipped.increment(chunk.size());
+                    } else {
+                        List<Book> books = toBooks(run.authorResolver, chunk);
+                        queueTimer.record((Runnable) queue::acquireUninterruptibly);
+                        rowsInFlight.addAndGet(books.size());
+                        long no = chunkNo;
+                        long firstLine = chunk.getFirst().lineNumber();
+                        executor.execute(() -> {
+                            try {
+                                write(run, no, firstLine, books);
+                            } catch (Error e) {
+                                run.fail(new ImportFailedException("Chunk %d starting on line %d could not be written: %s"
+                                    .formatted(no, firstLine, e), e));
+                                throw e;
+                            } finally {
+                                rowsInFlight.addAndGet(-books.size());
+                                queue.release();
+                            }
+                        });
+                    }
+                }
+            } catch (RuntimeException e) {
+                parseFailure = e;
+            }
+            // closing the executor waits for the chunks that are still written, they are valid even if parsing failed
+        } finally {
+            activeAuthorResolvers.remove(run.authorResolver);
+            close(scope);
+        }
+        RuntimeException failure = parseFailure != null ? parseFailure : run.failure.get();
+        if (failure != null) {
+            log.warn("Import {} stopped after {} written rows: {}", importId, run.written.get(), failure.getMessage());
+            throw failure;
+        }
+        ImportResult result = new ImportResult(importId, run.parsed, run.written.get(), run.skipped,
+            Duration.ofNanos(System.nanoTime() - start));
+        log.info("Import {} wrote {} rows and skipped {} in {}, {} rows/s", importId, result.rowsWritten(),
+            result.rowsSkipped(), result.took(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private Map<Long, ImportChunk> committedChunks(String importId) {
+        Map<Long, ImportChunk> committed = new HashMap<>();
+        importChunkRepository.findByIdImportId(importId).forEach(chunk -> committed.put(chunk.getId().chunkNo(), chunk));
+        return committed;
+    }
+
+    private List<ImportRow> readChunk(RowReader rowReader) throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long start = System.nanoTime();
+        ImportRow row;
+        while (chunk.size() < chunkSize && (row = rowReader.next()) != null) {
+            if (row.title() == null || row.title().isBlank()) {
+                throw new ImportFailedException("Line " + row.lineNumber() + " has no title");
+            }
+            chunk.add(row);
+        }
+        parseTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        rowsParsed.increment(chunk.size());
+        return chunk;
+    }
+
+    private void checkCommitted(ImportChunk committed, List<ImportRow> chunk) {
+        if (committed.getChunkSize() != chunkSize || committed.getRowCount() != chunk.size()) {
+            throw new ImportFailedException("Chunk %d of import %s was committed with %d of %d rows, the input or the chunk size changed"
+                .formatted(committed.getId().chunkNo(), committed.getId().importId(), committed.getRowCount(),
+                    committed.getChunkSize()));
+        }
+    }
+
+    // the author is only a holder for the id, the worker replaces it with a reference in its own transaction
+    private List<Book> toBooks(AuthorResolver authorResolver, List<ImportRow> chunk) {
+        Map<AuthorKey, Long> authorIds = resolveTimer.record(() -> authorResolver.resolve(chunk));
+        List<Book> books = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            Book book = new Book(row.title(), row.isbn(), row.publisher());
+            if (row.hasAuthor()) {
+                Author author = new Author();
+                author.setId(authorIds.get(AuthorKey.of(row)));
+                book.setAuthor(author);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    private void write(Run run, long chunkNo, long firstLine, List<Book> books) {
+        if (run.failure.get() != null) {
+            return;
+        }
+        StatementBudget.Scope scope = openUnbudgeted(run.importId);
+        try {
+            writeTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                books.stream().filter(book -> book.getAuthorId() != null)
+                    .forEach(book -> book.setAuthor(entityManager.getReference(Author.class, book.getAuthorId())));
+                bookDao.saveAllNewBooks(books);
+                importChunkRepository.save(new ImportChunk(run.importId, chunkNo, chunkSize, books.size()));
+            }));
+            run.written.addAndGet(books.size());
+            rowsWritten.increment(books.size());
+        } catch (Exception e) {
+            run.fail(new ImportFailedException("Chunk %d starting on line %d could not be written: %s"
+                .formatted(chunkNo, firstLine, NestedExceptionUtils.getMostSpecificCause(e).getMessage()), e));
+        } finally {
+            close(scope);
+        }
+    }
+
+    private StatementBudget.Scope openUnbudgeted(String importId) {
+        StatementBudget budget = statementBudget.getIfAvailable();
+        return budget != null ? budget.openUnbudgeted(IMPORT_SCOPE, importId) : null;
+    }
+
+    private static void close(StatementBudget.Scope scope) {
+        if (scope != null) {
+            scope.close();
+        }
+    }
+
+    private static Counter rowsCounter(String stage, MeterRegistry meterRegistry) {
+        return Counter.builder("book.import.rows")
+            .description("Rows of book imports by stage")
+            .tag("stage", stage)
+            .register(meterRegistry);
+    }
+
+    private static Timer stageTimer(String stage, MeterRegistry meterRegistry) {
+        return Timer.builder("book.import.stage")
+            .description("Time per chunk in each stage of book imports, queue is the time the parser waits for a worker")
+            .tag("stage", stage)
+            .register(meterRegistry);
+    }
+
+    private static final class Run {
+
+        private final String importId;
+        private final AuthorResolver authorResolver;
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final AtomicLong written = new AtomicLong();
+        private long parsed;
+        private long skipped;
+
+        private Run(String importId, AuthorResolver authorResolver) {
+            this.importId = importId;
+            this.authorResolver = authorResolver;
+        }
+
+        // the first failure stops the import, the parser rethrows it once the workers are done
+        private void fail(RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header line naming the columns, in any order. Quoted fields may contain commas, doubled quotes
+ * and line breaks; columns the header does not know are ignored.
+ */
+class CsvRowReader implements RowReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long lineNumber;
+    private long recordLineNumber;
+
+    CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new ImportFailedException("The CSV file has no header line");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).strip(), i);
+        }
+        if (!columns.containsKey(TITLE)) {
+            throw new ImportFailedException("The CSV header has no " + TITLE + " column");
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isEmpty());
+        return new ImportRow(recordLineNumber, field(fields, TITLE), field(fields, ISBN), field(fields, PUBLISHER),
+            field(fields, AUTHOR_FIRST_NAME), field(fields, AUTHOR_LAST_NAME));
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // one record, which spans several lines when a quoted field contains line breaks
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        recordLineNumber = ++lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new ImportFailedException("Unterminated quoted field starting on line " + recordLineNumber);
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
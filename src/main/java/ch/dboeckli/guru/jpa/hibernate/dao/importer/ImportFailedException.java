@@ -0,0 +1,25 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * The import stopped on a malformed row or a chunk that could not be written. The chunks committed before stay
+ * committed, running the import again with the same id resumes after them.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_CONTENT)
+public class ImportFailedException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ImportFailedException(String message) {
+        super(message);
+    }
+
+    public ImportFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    RowReader open(Reader reader, JsonMapper jsonMapper) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvRowReader(reader);
+            case NDJSON -> new NdjsonRowReader(reader, jsonMapper);
+        };
+    }
+}
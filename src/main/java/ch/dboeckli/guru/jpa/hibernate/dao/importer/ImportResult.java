@@ -0,0 +1,14 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one import run, skipped rows were committed by an earlier run of the same import.
+ */
+public record ImportResult(String importId, long rowsRead, long rowsWritten, long rowsSkipped, Duration took) {
+
+    public double rowsPerSecond() {
+        double seconds = took.toNanos() / 1e9;
+        return seconds > 0 ? rowsWritten / seconds : 0;
+    }
+}
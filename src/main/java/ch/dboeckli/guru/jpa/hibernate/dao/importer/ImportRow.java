@@ -0,0 +1,16 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+/**
+ * One book of an import file with the name of its author, the line number is the line the row started on.
+ */
+public record ImportRow(long lineNumber, String title, String isbn, String publisher,
+                        String authorFirstName, String authorLastName) {
+
+    public boolean hasAuthor() {
+        return !isBlank(authorFirstName) || !isBlank(authorLastName);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
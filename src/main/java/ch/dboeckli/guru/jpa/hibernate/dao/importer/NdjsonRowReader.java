@@ -0,0 +1,52 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * One JSON object per line with the same field names as the CSV header, blank lines are skipped.
+ */
+class NdjsonRowReader implements RowReader {
+
+    private final BufferedReader reader;
+    private final JsonMapper jsonMapper;
+    private long lineNumber;
+
+    NdjsonRowReader(Reader reader, JsonMapper jsonMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        JsonNode node;
+        try {
+            node = jsonMapper.readTree(line);
+        } catch (JacksonException e) {
+            throw new ImportFailedException("Line " + lineNumber + " is not valid JSON: " + e.getOriginalMessage(), e);
+        }
+        if (!node.isObject()) {
+            throw new ImportFailedException("Line " + lineNumber + " is not a JSON object");
+        }
+        return new ImportRow(lineNumber, text(node, TITLE), text(node, ISBN), text(node, PUBLISHER),
+            text(node, AUTHOR_FIRST_NAME), text(node, AUTHOR_LAST_NAME));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asString();
+    }
+}
@@ -0,0 +1,21 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import java.io.IOException;
+
+/**
+ * Reads an import file row by row, nothing but the current row is held in memory.
+ */
+interface RowReader {
+
+    String TITLE = "title";
+    String ISBN = "isbn";
+    String PUBLISHER = "publisher";
+    String AUTHOR_FIRST_NAME = "authorFirstName";
+    String AUTHOR_LAST_NAME = "authorLastName";
+
+    /**
+     * @return the next row or {@code null} at the end of the file
+     * @throws ImportFailedException if the row is malformed
+     */
+    ImportRow next() throws IOException;
+}
@@ -0,0 +1,75 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Exponentially weighted moving average of the time Hikari needs to hand out a connection. It decorates the pool's
+ * {@link MetricsTrackerFactory}, so the usual {@code hikaricp.*} metrics are still recorded. Without fresh samples the
+ * average reads as zero, an idle pool is not a congested one.
+ */
+public class PoolAcquireLatency implements LongSupplier {
+
+    private static final double WEIGHT = 0.2;
+
+    private final long staleAfterNanos;
+    private final AtomicLong averageNanos = new AtomicLong();
+    private volatile long lastSampleNanos;
+
+    public PoolAcquireLatency(Duration staleAfter) {
+        this.staleAfterNanos = staleAfter.toNanos();
+    }
+
+    public void record(long acquireNanos) {
+        averageNanos.updateAndGet(average -> average == 0 ? acquireNanos : (long) (average + WEIGHT * (acquireNanos - average)));
+        lastSampleNanos = System.nanoTime();
+    }
+
+    @Override
+    public long getAsLong() {
+        return System.nanoTime() - lastSampleNanos > staleAfterNanos ? 0 : averageNanos.get();
+    }
+
+    public MetricsTrackerFactory decorate(MetricsTrackerFactory delegate) {
+        return (poolName, poolStats) -> new Tracker(delegate.create(poolName, poolStats));
+    }
+
+    private final class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+
+        private Tracker(IMetricsTracker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            record(elapsedAcquiredNanos);
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends read-only transactions to the {@link ReplicaPool} and everything else to the primary. The physical connection
+ * is only fetched once the transaction manager has marked it read-only or not, which is what picks the target.
+ */
+public final class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final ReplicaPool replicaPool;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaPool replicaPool) {
+        super(primary);
+        setReadOnlyDataSource(replicaPool);
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+    }
+
+    public ReplicaPool getReplicaPool() {
+        return replicaPool;
+    }
+
+    @Override
+    public void close() {
+        replicaPool.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,155 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read-only side of {@link ReadWriteRoutingDataSource}. Hands out connections of the healthy replicas and falls
+ * back to the primary while none is healthy. A replica is healthy when it answers and, if a lag query is configured,
+ * lags less than the allowed maximum behind the primary.
+ * <p>
+ * The replicas are checked on a background thread, also the first time, so an unreachable replica does not hold up the
+ * start. Until its first check passed a replica counts as unhealthy and the primary serves the reads.
+ */
+@Slf4j
+public final class ReplicaPool extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final DataSource fallback;
+    private final ReplicaSelection selection;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaPool(List<HikariDataSource> replicas, DataSource fallback, ReplicaSelection selection, String lagQuery,
+                       Duration maxLag, Duration healthCheckInterval) {
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.fallback = fallback;
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-health").factory());
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return select().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return select().getConnection(username, password);
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    DataSource select() {
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return fallback;
+        }
+        Replica replica = switch (selection) {
+            case ROUND_ROBIN -> healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+            case LEAST_BUSY -> healthy.stream().min(Comparator.comparingInt(Replica::activeConnections)).orElseThrow();
+        };
+        return replica.dataSource;
+    }
+
+    void checkHealth() {
+        replicas.forEach(this::checkHealth);
+    }
+
+    private void checkHealth(Replica replica) {
+        boolean wasHealthy = replica.healthy;
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                replica.healthy = false;
+            } else {
+                replica.lagSeconds = lagQuery == null ? 0 : queryLag(connection);
+                replica.healthy = replica.lagSeconds <= maxLag.toSeconds();
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Health check of replica {} failed", replica.name(), e);
+            replica.healthy = false;
+        }
+        if (!replica.checked) {
+            replica.checked = true;
+            log.info("Replica {} is {} (lag {}s)", replica.name(), replica.healthy ? "healthy" : "unhealthy", replica.lagSeconds);
+        } else if (wasHealthy != replica.healthy) {
+            log.warn("Replica {} is {} (lag {}s)", replica.name(), replica.healthy ? "healthy again" : "unhealthy", replica.lagSeconds);
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            // no row or null means the replica does not replicate at all
+            return resultSet.next() && resultSet.getObject(1) != null ? resultSet.getLong(1) : Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replicas.forEach(replica -> {
+            Gauge.builder("jdbc.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .description("Whether the replica takes read-only transactions")
+                .tag("pool", replica.name())
+                .register(registry);
+            Gauge.builder("jdbc.replica.lag", replica, r -> r.lagSeconds)
+                .baseUnit("seconds")
+                .tag("pool", replica.name())
+                .register(registry);
+        });
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile boolean checked;
+        private volatile long lagSeconds;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
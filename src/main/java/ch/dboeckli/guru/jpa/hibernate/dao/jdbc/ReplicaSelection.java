@@ -0,0 +1,17 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+/**
+ * How {@link ReplicaPool} picks one of its healthy replicas for a read-only transaction.
+ */
+public enum ReplicaSelection {
+
+    /**
+     * Take the replicas in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Take the replica with the fewest connections in use.
+     */
+    LEAST_BUSY
+}
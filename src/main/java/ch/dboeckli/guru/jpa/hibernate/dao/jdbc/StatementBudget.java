@@ -0,0 +1,153 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Counts the JDBC statements of the current unit of work. An HTTP request opens a scope through
+ * {@link StatementBudgetFilter}; statements running outside a request but inside a transaction get a scope that ends
+ * with the transaction. Nested scopes are counted by the outermost one. Batch jobs open an unbudgeted scope, their
+ * statements are measured but never exceed the budget.
+ */
+@Slf4j
+public class StatementBudget {
+
+    public static final String HTTP_SCOPE = "http";
+    public static final String TRANSACTION_SCOPE = "transaction";
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final int maxStatements;
+    private final boolean failOnExceeded;
+    private final MeterRegistry meterRegistry;
+
+    public StatementBudget(int maxStatements, boolean failOnExceeded, MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.failOnExceeded = failOnExceeded;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Scope open(String type, String description) {
+        if (currentScope.get() != null) {
+            return Scope.NESTED;
+        }
+        Scope scope = new Scope(this, type, description, true, null);
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * Opens a scope without a budget. Unlike {@link #open(String, String)} it also replaces a scope that is already
+     * open on this thread, which is restored on close.
+     */
+    public Scope openUnbudgeted(String type, String description) {
+        return openReplacing(type, description, false);
+    }
+
+    /**
+     * Opens a budgeted scope that replaces a scope already open on this thread until it is closed, so a unit of work
+     * inside a longer one is held to the budget on its own.
+     */
+    public Scope openSeparate(String type, String description) {
+        return openReplacing(type, description, true);
+    }
+
+    private Scope openReplacing(String type, String description, boolean budgeted) {
+        Scope scope = new Scope(this, type, description, budgeted, currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    public int currentCount() {
+        Scope scope = currentScope.get();
+        return scope == null ? 0 : scope.count;
+    }
+
+    void record(String sql, Supplier<String> callSite) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            scope = openTransactionScope();
+        }
+        if (++scope.count == maxStatements + 1 && scope.budgeted) {
+            budgetExceeded(scope, sql, callSite);
+        }
+    }
+
+    private Scope openTransactionScope() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        Scope scope = open(TRANSACTION_SCOPE, name == null ? "unnamed transaction" : name);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                scope.close();
+            }
+        });
+        return scope;
+    }
+
+    private void budgetExceeded(Scope scope, String sql, Supplier<String> callSite) {
+        Counter.builder("jdbc.statement.budget.exceeded")
+            .description("Units of work that executed more statements than the budget")
+            .tag("scope", scope.type)
+            .register(meterRegistry)
+            .increment();
+        String message = "%s '%s' exceeded the budget of %d statements, statement %d at %s: %s"
+            .formatted(scope.type, scope.description, maxStatements, scope.count, callSite.get(), sql);
+        if (failOnExceeded) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private void closed(Scope scope) {
+        if (scope.previous != null) {
+            currentScope.set(scope.previous);
+        } else {
+            currentScope.remove();
+        }
+        DistributionSummary.builder("jdbc.statements.per.scope")
+            .description("JDBC statements per HTTP request or transaction")
+            .tag("scope", scope.type)
+            .register(meterRegistry)
+            .record(scope.count);
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private static final Scope NESTED = new Scope(null, null, null, true, null);
+
+        private final StatementBudget budget;
+        private final String type;
+        private final String description;
+        private final boolean budgeted;
+        private final Scope previous;
+        private int count;
+
+        private Scope(StatementBudget budget, String type, String description, boolean budgeted, Scope previous) {
+            this.budget = budget;
+            this.type = type;
+            this.description = description;
+            this.budgeted = budgeted;
+            this.previous = previous;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (budget != null) {
+                budget.closed(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a request or transaction executes more statements than its budget allows and
+ * {@code sdjpa.sql-monitoring.fail-on-budget-exceeded} is set, which is what the tests do to catch N+1 regressions.
+ */
+public class StatementBudgetExceededException extends IllegalStateException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
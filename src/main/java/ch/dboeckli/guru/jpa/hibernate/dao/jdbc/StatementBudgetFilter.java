@@ -0,0 +1,31 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements of each HTTP request against the {@link StatementBudget}.
+ */
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudget statementBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        StatementBudget.Scope scope = statementBudget.open(StatementBudget.HTTP_SCOPE,
+            request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+}
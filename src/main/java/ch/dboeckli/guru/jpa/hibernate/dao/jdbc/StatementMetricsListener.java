@@ -0,0 +1,102 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures every JDBC statement. Statements slower than the threshold are logged with their bind parameters and the
+ * application frame that issued them, all others only at debug level. The stack is only walked for the frame when a
+ * log line or an exceeded statement budget needs it, and there is one timer per tag combination.
+ */
+@Slf4j
+public class StatementMetricsListener implements QueryExecutionListener {
+
+    private static final String APPLICATION_PACKAGE = "ch.dboeckli.guru.jpa.hibernate.dao.";
+    private static final String JDBC_PACKAGE = StatementMetricsListener.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final long slowQueryThresholdMillis;
+    private final StatementBudget statementBudget;
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public StatementMetricsListener(Duration slowQueryThreshold, StatementBudget statementBudget, MeterRegistry meterRegistry) {
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+        this.statementBudget = statementBudget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.getFirst().getQuery();
+        TimerKey timerKey = new TimerKey(QueryUtils.getQueryType(sql), execInfo.isBatch(), execInfo.isSuccess());
+        timers.computeIfAbsent(timerKey, this::timer).record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis) {
+            log.warn("Slow statement took {} ms at {}: {}", execInfo.getElapsedTime(), callSite(), describe(queryInfoList));
+        } else if (log.isDebugEnabled()) {
+            log.debug("Statement took {} ms at {}: {}", execInfo.getElapsedTime(), callSite(), describe(queryInfoList));
+        }
+        statementBudget.record(sql, StatementMetricsListener::callSite);
+    }
+
+    private Timer timer(TimerKey key) {
+        return Timer.builder("jdbc.statement")
+            .description("JDBC statement execution time")
+            .tag("type", key.type().name().toLowerCase(Locale.ROOT))
+            .tag("batch", String.valueOf(key.batch()))
+            .tag("outcome", key.success() ? "success" : "error")
+            .register(meterRegistry);
+    }
+
+    static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+            .filter(frame -> !frame.getClassName().startsWith(JDBC_PACKAGE))
+            .filter(frame -> !frame.getClassName().contains("$$"))
+            .findFirst()
+            .map(StackWalker.StackFrame::toStackTraceElement)
+            .map(StackTraceElement::toString)
+            .orElse("unknown"));
+    }
+
+    private static String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+            .map(queryInfo -> queryInfo.getQuery() + parameters(queryInfo))
+            .collect(Collectors.joining("; "));
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return "";
+        }
+        return queryInfo.getParametersList().stream()
+            .map(parameters -> parameters.stream()
+                .map(ParameterSetOperation::getArgs)
+                .map(args -> args.length > 1 ? args[0] + "=" + args[1] : String.valueOf(args[0]))
+                .collect(Collectors.joining(", ", "[", "]")))
+            .collect(Collectors.joining(", ", " ", ""));
+    }
+
+    private record TimerKey(QueryType type, boolean batch, boolean success) {
+    }
+}
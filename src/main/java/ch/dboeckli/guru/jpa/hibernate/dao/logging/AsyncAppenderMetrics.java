@@ -0,0 +1,52 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binds the counters of every {@link MeteredAsyncAppender} attached to the root logger.
+ */
+public class AsyncAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            bindTo(registry, loggerContext);
+        }
+    }
+
+    void bindTo(MeterRegistry registry, LoggerContext loggerContext) {
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders().forEachRemaining(appender -> {
+            if (appender instanceof MeteredAsyncAppender asyncAppender) {
+                bindTo(registry, asyncAppender);
+            }
+        });
+    }
+
+    private void bindTo(MeterRegistry registry, MeteredAsyncAppender appender) {
+        FunctionCounter.builder("logback.async.events.queued", appender, MeteredAsyncAppender::getQueuedCount)
+            .description("Log events handed to the worker thread")
+            .tag("appender", appender.getName())
+            .register(registry);
+        FunctionCounter.builder("logback.async.events.dropped", appender, MeteredAsyncAppender::getDroppedCount)
+            .description("Log events discarded under pressure or because the queue was full")
+            .tag("appender", appender.getName())
+            .register(registry);
+        FunctionCounter.builder("logback.async.events.flushed", appender, MeteredAsyncAppender::getFlushedCount)
+            .description("Log events written by the attached appender")
+            .tag("appender", appender.getName())
+            .register(registry);
+        Gauge.builder("logback.async.queue.size", appender, MeteredAsyncAppender::getNumberOfElementsInQueue)
+            .description("Log events waiting for the worker thread")
+            .tag("appender", appender.getName())
+            .register(registry);
+        Gauge.builder("logback.async.queue.capacity", appender, MeteredAsyncAppender::getQueueSize)
+            .tag("appender", appender.getName())
+            .register(registry);
+    }
+}
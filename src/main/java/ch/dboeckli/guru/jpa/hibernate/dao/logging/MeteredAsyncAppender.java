@@ -0,0 +1,62 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts its events, see {@link AsyncAppenderMetrics}. An event is either queued for the
+ * worker thread or dropped, because the queue was below the discarding threshold (TRACE, DEBUG and INFO only) or full
+ * in never-block mode. Queued events are flushed once the worker has handed them to the attached appender.
+ * <p>
+ * The offer to the queue is private to the base class, so a full queue is detected by the remaining capacity just
+ * before it. While the queue flips between full and not full the queued and dropped counts can be off by a few events.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        received.increment();
+        super.append(eventObject);
+    }
+
+    @Override
+    protected void preprocess(ILoggingEvent eventObject) {
+        super.preprocess(eventObject);
+        if (!isNeverBlock() || getRemainingCapacity() > 0) {
+            queued.increment();
+        }
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        newAppender.addFilter(new Filter<>() {
+            @Override
+            public FilterReply decide(ILoggingEvent event) {
+                flushed.increment();
+                return FilterReply.NEUTRAL;
+            }
+        });
+        super.addAppender(newAppender);
+    }
+
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    public long getDroppedCount() {
+        return received.sum() - queued.sum();
+    }
+
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+}
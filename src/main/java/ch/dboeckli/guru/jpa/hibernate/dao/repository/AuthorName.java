@@ -0,0 +1,8 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.repository;
+
+/**
+ * Read-only projection of an {@link ch.dboeckli.guru.jpa.hibernate.dao.domain.Author}. Only the id and name columns are
+ * selected and no entity is put into the persistence context.
+ */
+public record AuthorName(Long id, String firstName, String lastName) {
+}
@@ -1,16 +1,58 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.repository;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
+    @QueryHints({
+        @QueryHint(name = HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HINT_CACHE_REGION, value = Author.QUERY_CACHE_REGION)
+    })
     Optional<Author> findAuthorByFirstNameAndLastName(String firstName, String lastName);
 
     Page<Author> findAuthorByLastName(String lastName, Pageable pageable);
 
+    Slice<Author> findAuthorSliceByLastName(String lastName, Pageable pageable);
+
+    Slice<AuthorName> findAuthorNameSliceByLastName(String lastName, Pageable pageable);
+
+    long countByLastName(String lastName);
+
+    List<AuthorName> findAuthorNameByLastNameIn(Collection<String> lastNames);
+
+    List<AuthorName> findAuthorNameByLastNameIsNullAndFirstNameIn(Collection<String> firstNames);
+
+    // compares the leading characters instead of LIKE, the ESCAPE clause of the MySQL dialect is rejected by h2
+    @Query(value = "SELECT new ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName(a.id, a.firstName, a.lastName) FROM Author a "
+        + "WHERE LEFT(LOWER(a.lastName), :length) = :prefix OR LEFT(LOWER(a.firstName), :length) = :prefix "
+        + "ORDER BY a.lastName, a.firstName, a.id")
+    List<AuthorName> findAuthorNamesByNamePrefix(@Param("prefix") String lowerCasePrefix, @Param("length") int length, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<AuthorName> streamAuthorNameBy();
+
+    @Query(value = "SELECT a.version FROM Author a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(value = "SELECT a FROM Author a LEFT JOIN FETCH a.books WHERE a.id = :id")
+    Optional<Author> findWithBooksById(@Param("id") Long id);
+
 }
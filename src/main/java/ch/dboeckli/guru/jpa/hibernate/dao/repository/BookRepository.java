@@ -1,18 +1,35 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.repository;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
-import org.springframework.scheduling.annotation.Async;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    @QueryHints({
+        @QueryHint(name = HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HINT_CACHE_REGION, value = Book.QUERY_CACHE_REGION)
+    })
     Optional<Book> findBookByTitle(String title);
 
     Book readByTitle(String title);
@@ -20,10 +37,25 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Nullable
     Book getByTitle(@Nullable String title);
 
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
     Stream<Book> findAllByTitleNotNull();
 
-    @Async
-    Future<Book> queryByTitle(String title);
+    Slice<Book> findBookSliceBy(Pageable pageable);
+
+    Slice<BookSummary> findBookSummarySliceBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    Optional<Book> findWithAuthorById(Long id);
+
+    @EntityGraph(attributePaths = "author")
+    Slice<Book> findBookWithAuthorSliceBy(Pageable pageable);
+
+    @Query(value = "SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.title = :title")
+    Optional<Book> findBookWithAuthorByTitle(@Param("title") String title);
 
     @Query(value = "SELECT b FROM Book b WHERE b.title = ?1")
     Book findBookByTitleWithQuery(String title);
@@ -36,4 +68,37 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     Book jpaNamed(@Param("title") String title);
 
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query(value = "SELECT b FROM Book b WHERE b.title IS NOT NULL ORDER BY b.title, b.id")
+    List<Book> findFirstTitledOrderByTitleAndId(Limit limit);
+
+    @Query(value = "SELECT b FROM Book b WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title, b.id")
+    List<Book> findTitledAfterOrderByTitleAndId(@Param("title") String title, @Param("id") Long id, Limit limit);
+
+    @Query(value = "SELECT b.version FROM Book b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(value = "SELECT b.id FROM Book b WHERE b.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query(value = "SELECT b.id FROM Book b WHERE b.publisher = :publisher")
+    List<Long> findIdsByPublisher(@Param("publisher") String publisher);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE Book b SET b.author.id = :toAuthorId, b.version = b.version + 1 WHERE b.author.id = :fromAuthorId")
+    int updateAuthorIdByAuthorId(@Param("fromAuthorId") Long fromAuthorId, @Param("toAuthorId") Long toAuthorId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE Book b SET b.publisher = :newPublisher, b.version = b.version + 1 WHERE b.publisher = :oldPublisher")
+    int updatePublisherByPublisher(@Param("oldPublisher") String oldPublisher, @Param("newPublisher") String newPublisher);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM Book b WHERE b.author.id = :authorId")
+    int deleteAllByAuthorIdInBulk(@Param("authorId") Long authorId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteAllByIdInBulk(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,8 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.repository;
+
+/**
+ * Read-only projection of a {@link ch.dboeckli.guru.jpa.hibernate.dao.domain.Book}. Only the id and title columns are
+ * selected and no entity is put into the persistence context.
+ */
+public record BookSummary(Long id, String title) {
+}
@@ -0,0 +1,11 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.repository;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.ImportChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ImportChunkRepository extends JpaRepository<ImportChunk, ImportChunk.Key> {
+
+    List<ImportChunk> findByIdImportId(String importId);
+}
@@ -0,0 +1,125 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.search;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.engine.search.query.SearchScroll;
+import org.hibernate.search.engine.search.query.SearchScrollResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rebuilds the book index from the database. Needed whenever the index starts out empty or was written by hand past
+ * Hibernate, e.g. after the sql init scripts or a restart with a heap or ephemeral index directory.
+ */
+@Slf4j
+public class BookSearchIndexer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int threadsToLoadObjects;
+    private final int batchSizeToLoadObjects;
+    private final Timer reindexTimer;
+    private final Timer refreshTimer;
+
+    public BookSearchIndexer(EntityManagerFactory entityManagerFactory, int threadsToLoadObjects,
+                             int batchSizeToLoadObjects, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.threadsToLoadObjects = threadsToLoadObjects;
+        this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+        this.reindexTimer = Timer.builder("search.reindex")
+            .description("Time to rebuild the book search index")
+            .tag("mode", "purge")
+            .register(meterRegistry);
+        this.refreshTimer = Timer.builder("search.reindex")
+            .description("Time to rebuild the book search index")
+            .tag("mode", "refresh")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Purges the book index and indexes every book again, blocks until done. Searches find nothing until the mass
+     * indexer is through, so this is only for an index nobody reads yet, e.g. on startup before the pod is ready.
+     *
+     * @return how long the reindexing took
+     */
+    public Duration reindex() throws InterruptedException {
+        long start = System.nanoTime();
+        Search.mapping(entityManagerFactory).scope(Book.class).massIndexer()
+            .threadsToLoadObjects(threadsToLoadObjects)
+            .batchSizeToLoadObjects(batchSizeToLoadObjects)
+            .purgeAllOnStart(true)
+            .startAndWait();
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        reindexTimer.record(took);
+        log.info("Rebuilt the book search index in {} ms", took.toMillis());
+        return took;
+    }
+
+    /**
+     * Brings the book index up to date on a pod in service: updates the document of every book batch by batch and
+     * then pages through the indexed ids and purges the documents of books that no longer exist, so searches keep
+     * finding the books while it runs. Every page of indexed ids is checked against the database right before its
+     * purge, a book saved while the refresh runs keeps its document. Slower than {@link #reindex()}, which would empty
+     * the index first.
+     *
+     * @return how long the refresh took
+     */
+    public Duration refresh() {
+        long start = System.nanoTime();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            SearchSession searchSession = Search.session(entityManager);
+            SearchIndexingPlan indexingPlan = searchSession.indexingPlan();
+            List<Book> batch;
+            long after = Long.MIN_VALUE;
+            do {
+                batch = entityManager.createQuery(
+                        "select b from Book b left join fetch b.author where b.id > :after order by b.id", Book.class)
+                    .setParameter("after", after)
+                    .setMaxResults(batchSizeToLoadObjects)
+                    .getResultList();
+                for (Book book : batch) {
+                    indexingPlan.addOrUpdate(book);
+                    after = book.getId();
+                }
+                indexingPlan.execute();
+                entityManager.clear();
+            } while (batch.size() == batchSizeToLoadObjects);
+
+            try (SearchScroll<Long> indexedIds = searchSession.search(Book.class)
+                .select(f -> f.id(Long.class))
+                .where(f -> f.matchAll())
+                .scroll(batchSizeToLoadObjects)) {
+                for (SearchScrollResult<Long> page = indexedIds.next(); page.hasHits(); page = indexedIds.next()) {
+                    purgeDeleted(entityManager, indexingPlan, page.hits());
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        refreshTimer.record(took);
+        log.info("Refreshed the book search index in {} ms", took.toMillis());
+        return took;
+    }
+
+    private static void purgeDeleted(EntityManager entityManager, SearchIndexingPlan indexingPlan, List<Long> indexedIds) {
+        Set<Long> existing = new HashSet<>(entityManager.createQuery(
+                "select b.id from Book b where b.id in :candidates", Long.class)
+            .setParameter("candidates", indexedIds)
+            .getResultList());
+        indexedIds.stream()
+            .filter(id -> !existing.contains(id))
+            .forEach(id -> indexingPlan.purge(Book.class, id, null));
+        indexingPlan.execute();
+    }
+}
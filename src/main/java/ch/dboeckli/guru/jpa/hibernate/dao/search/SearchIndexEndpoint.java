@@ -0,0 +1,23 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * {@code POST /actuator/searchindex} brings the book search index up to date. It runs on pods in service, so it
+ * refreshes the index in place instead of purging it first.
+ */
+@Endpoint(id = "searchindex")
+@RequiredArgsConstructor
+public class SearchIndexEndpoint {
+
+    private final BookSearchIndexer bookSearchIndexer;
+
+    @WriteOperation
+    public Map<String, Object> reindex() {
+        return Map.of("tookMillis", bookSearchIndexer.refresh().toMillis());
+    }
+}
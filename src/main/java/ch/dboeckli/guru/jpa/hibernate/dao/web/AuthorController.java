@@ -0,0 +1,81 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(AuthorController.AUTHOR_PATH)
+@RequiredArgsConstructor
+public class AuthorController {
+
+    public static final String AUTHOR_PATH = "/api/v1/authors";
+    public static final String AUTOCOMPLETE_PATH = "/autocomplete";
+    public static final String BATCH_PATH = "/batch";
+    public static final String ID_PATH = "/{id}";
+
+    static final int MAX_COMPLETIONS = 50;
+
+    private final AuthorDao authorDao;
+
+    @GetMapping(AUTOCOMPLETE_PATH)
+    public List<AuthorName> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return authorDao.completeAuthorNames(prefix, Math.min(limit, MAX_COMPLETIONS));
+    }
+
+    /**
+     * Looks up to {@value BatchResult#MAX_IDS} authors by id in one request, the body is the JSON array of ids.
+     */
+    @PostMapping(BATCH_PATH)
+    public BatchResult<AuthorName> getAuthors(@RequestBody List<Long> ids) {
+        BatchResult.checkIds(ids);
+        List<AuthorName> authors = authorDao.getByIds(ids).stream().map(AuthorController::toAuthorName).toList();
+        return BatchResult.of(ids, authors, AuthorName::id);
+    }
+
+    /**
+     * Same as {@link BookController#getBook} for authors.
+     */
+    @GetMapping(ID_PATH)
+    public ResponseEntity<AuthorName> getAuthor(@PathVariable Long id, WebRequest request) {
+        if (ETags.checkNotModified(request, () -> authorDao.findVersionById(id))) {
+            return null;
+        }
+        Author author = authorDao.getByIds(List.of(id)).stream().findFirst().orElseThrow(ETags::notFound);
+        return ResponseEntity.ok().eTag(ETags.of(author.getVersion())).body(toAuthorName(author));
+    }
+
+    /**
+     * Same as {@link BookController#updateBook} for the names of an author.
+     */
+    @PutMapping(ID_PATH)
+    public ResponseEntity<AuthorName> updateAuthor(@PathVariable Long id, @RequestBody AuthorName name,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Author author = new Author();
+        author.setId(id);
+        author.setVersion(ETags.requiredVersion(ifMatch));
+        author.setFirstName(name.firstName());
+        author.setLastName(name.lastName());
+        Author updated = ETags.update(ifMatch, () -> authorDao.updateAuthor(author));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(toAuthorName(updated));
+    }
+
+    private static AuthorName toAuthorName(Author author) {
+        return new AuthorName(author.getId(), author.getFirstName(), author.getLastName());
+    }
+}
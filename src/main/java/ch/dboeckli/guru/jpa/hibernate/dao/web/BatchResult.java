@@ -0,0 +1,33 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Response of the batch lookups: the found entities in the order of the requested ids and the ids that were not found.
+ */
+record BatchResult<T>(List<T> found, List<Long> missingIds) {
+
+    static final int MAX_IDS = 1000;
+
+    static <T> BatchResult<T> of(Collection<Long> requestedIds, List<T> found, Function<T, Long> idOf) {
+        Set<Long> missing = new LinkedHashSet<>(requestedIds);
+        found.forEach(entity -> missing.remove(idOf.apply(entity)));
+        return new BatchResult<>(found, List.copyOf(missing));
+    }
+
+    static void checkIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_IDS + " ids are required");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ids must not contain null");
+        }
+    }
+}
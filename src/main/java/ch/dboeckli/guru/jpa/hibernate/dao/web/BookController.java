@@ -0,0 +1,73 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookExportController.BOOK_PATH;
+
+@RestController
+@RequestMapping(BOOK_PATH)
+@RequiredArgsConstructor
+public class BookController {
+
+    public static final String BATCH_PATH = "/batch";
+    public static final String ID_PATH = "/{id}";
+
+    private final BookDao bookDao;
+
+    /**
+     * Looks up to {@value BatchResult#MAX_IDS} books by id in one request, the body is the JSON array of ids.
+     */
+    @PostMapping(BATCH_PATH)
+    public BatchResult<BookLine> getBooks(@RequestBody List<Long> ids) {
+        BatchResult.checkIds(ids);
+        List<BookLine> books = bookDao.getByIds(ids).stream().map(BookLine::of).toList();
+        return BatchResult.of(ids, books, BookLine::id);
+    }
+
+    /**
+     * Answers {@code If-None-Match} with 304 from the version column alone, otherwise returns the book with its ETag.
+     */
+    @GetMapping(ID_PATH)
+    public ResponseEntity<BookLine> getBook(@PathVariable Long id, WebRequest request) {
+        if (ETags.checkNotModified(request, () -> bookDao.findVersionById(id))) {
+            return null;
+        }
+        Book book = bookDao.getByIds(List.of(id)).stream().findFirst().orElseThrow(ETags::notFound);
+        return ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(BookLine.of(book));
+    }
+
+    /**
+     * Replaces title, ISBN, publisher and author of the book, the id of the body is ignored. With {@code If-Match} the
+     * update only succeeds if the book was not changed since the client read it.
+     */
+    @PutMapping(ID_PATH)
+    public ResponseEntity<BookLine> updateBook(@PathVariable Long id, @RequestBody BookLine line,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Book book = new Book(line.title(), line.isbn(), line.publisher());
+        book.setId(id);
+        book.setVersion(ETags.requiredVersion(ifMatch));
+        if (line.authorId() != null) {
+            Author author = new Author();
+            author.setId(line.authorId());
+            book.setAuthor(author);
+        }
+        Book updated = ETags.update(ifMatch, () -> bookDao.updateBook(book));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(BookLine.of(updated));
+    }
+}
@@ -0,0 +1,51 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping(BookExportController.BOOK_PATH)
+@RequiredArgsConstructor
+@Slf4j
+public class BookExportController {
+
+    public static final String BOOK_PATH = "/api/v1/books";
+    public static final String EXPORT_PATH = "/export";
+
+    private final BookDao bookDao;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Writes one JSON document per line while the rows are read from the database, nothing is collected in memory.
+     */
+    @GetMapping(value = EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = outputStream -> {
+            long exported = bookDao.exportAllBooks(book -> writeLine(outputStream, book));
+            log.info("Exported {} books", exported);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Book book) {
+        try {
+            outputStream.write(jsonMapper.writeValueAsBytes(BookLine.of(book)));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
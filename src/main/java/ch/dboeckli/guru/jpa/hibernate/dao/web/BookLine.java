@@ -0,0 +1,13 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+
+/**
+ * JSON view of a {@link Book}, the author is referenced by id only so the lazy author is never loaded.
+ */
+record BookLine(Long id, String title, String isbn, String publisher, Long authorId) {
+
+    static BookLine of(Book book) {
+        return new BookLine(book.getId(), book.getTitle(), book.getIsbn(), book.getPublisher(), book.getAuthorId());
+    }
+}
@@ -0,0 +1,75 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags derived from the {@code @Version} of an entity, the tag changes with every committed update.
+ */
+final class ETags {
+
+    private static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the version alone, so an unchanged entity is neither loaded nor serialized.
+     *
+     * @return true if the response is a 304 and the handler must not write a body
+     */
+    static boolean checkNotModified(WebRequest request, Supplier<Optional<Long>> version) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        return request.checkNotModified(of(version.get().orElseThrow(ETags::notFound)));
+    }
+
+    /**
+     * @return the version an {@code If-Match} header requires, null if there is no header or it matches any version
+     * @throws ResponseStatusException 412 for a weak or malformed tag, those never match strongly
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.strip().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to 412
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must be a single strong entity tag");
+    }
+
+    /**
+     * Runs an update and maps a lost race to 412 if the client sent {@code If-Match}, to 409 otherwise.
+     */
+    static <T> T update(String ifMatch, Supplier<T> update) {
+        try {
+            return update.get();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            throw new ResponseStatusException(status, "The entity was changed concurrently", e);
+        } catch (EntityNotFoundException e) {
+            throw notFound();
+        }
+    }
+
+    static ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+}
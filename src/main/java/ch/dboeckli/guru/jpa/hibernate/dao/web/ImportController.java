@@ -0,0 +1,43 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.BookImporter;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.ImportFormat;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.ImportResult;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping(ImportController.IMPORT_PATH)
+@RequiredArgsConstructor
+public class ImportController {
+
+    public static final String IMPORT_PATH = "/api/v1/imports";
+    public static final String BOOKS_PATH = "/books";
+
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final BookImporter bookImporter;
+
+    /**
+     * Imports the request body while it is uploaded. Posting the same file again with the same import id resumes a
+     * failed import after its last committed chunk.
+     */
+    @PostMapping(BOOKS_PATH)
+    public ImportResult importBooks(@RequestParam String importId,
+                                    @RequestParam(defaultValue = "CSV") ImportFormat format,
+                                    HttpServletRequest request) throws IOException {
+        if (!IMPORT_ID.matcher(importId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "importId must be 1 to 64 letters, digits, '.', '_' or '-'");
+        }
+        return bookImporter.importBooks(importId, format, request.getInputStream());
+    }
+}
@@ -0,0 +1,9 @@
+create table id_generator
+(
+    sequence_name varchar(255) not null primary key,
+    next_val      bigint
+) engine = InnoDB;
+
+-- pooled optimizer with allocation size 50: the stored value is the upper bound of the next id block
+insert into id_generator (sequence_name, next_val) select 'author', coalesce(max(id), 0) + 50 from author;
+insert into id_generator (sequence_name, next_val) select 'book', coalesce(max(id), 0) + 50 from book;
@@ -0,0 +1,7 @@
+-- secondary indexes for the lookups done by BookRepository and AuthorRepository
+create index book_title_idx on book (title);
+create unique index book_isbn_uk on book (isbn);
+-- replaces the index mysql implicitly created for book_author_fk
+create index book_author_id_idx on book (author_id);
+-- serves lookups by last name as well as by first and last name
+create index author_last_name_first_name_idx on author (last_name, first_name);
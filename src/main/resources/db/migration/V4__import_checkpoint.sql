@@ -0,0 +1,9 @@
+-- one row per chunk an import committed, written in the same transaction as the chunk, see BookImporter
+create table import_chunk
+(
+    import_id  varchar(64) not null,
+    chunk_no   bigint      not null,
+    chunk_size int         not null,
+    row_count  int         not null,
+    primary key (import_id, chunk_no)
+) engine = InnoDB;
@@ -0,0 +1,5 @@
+-- optimistic locking and etags, existing rows start at version 0
+alter table book
+    add column version bigint not null default 0 after id;
+alter table author
+    add column version bigint not null default 0 after id;
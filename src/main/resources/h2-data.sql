@@ -75,4 +75,8 @@ INSERT INTO book (isbn, publisher, title, author_id) VALUES
                                                          ('978-7890123457', 'Addison Wesley', 'Domain-Driven Design Distilled', 2),
                                                          ('978-8901234568', 'Addison Wesley', 'Clean Agile', 3),
                                                          ('978-9012345679', 'Addison Wesley', 'NoSQL Distilled', 4),
-                                                         ('978-0123456780', 'Addison Wesley', 'Implementation Patterns', 5);
\ No newline at end of file
+                                                         ('978-0123456780', 'Addison Wesley', 'Implementation Patterns', 5);
+
+-- ID Generator (pooled, allocation size 50): the stored value is the upper bound of the next id block
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'author', COALESCE(MAX(id), 0) + 50 FROM author;
+INSERT INTO id_generator (sequence_name, next_val) SELECT 'book', COALESCE(MAX(id), 0) + 50 FROM book;
\ No newline at end of file
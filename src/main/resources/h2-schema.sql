@@ -1,16 +1,38 @@
 DROP TABLE IF EXISTS book;
 DROP TABLE IF EXISTS author;
+DROP TABLE IF EXISTS id_generator;
+DROP TABLE IF EXISTS import_chunk;
 
 CREATE TABLE author (
                         id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        version BIGINT NOT NULL DEFAULT 0,
                         first_name VARCHAR(255),
                         last_name VARCHAR(255)
 );
 
 CREATE TABLE book (
                       id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      version BIGINT NOT NULL DEFAULT 0,
                       isbn VARCHAR(255),
                       publisher VARCHAR(255),
                       title VARCHAR(255),
                       author_id BIGINT
-);
\ No newline at end of file
+);
+
+CREATE TABLE id_generator (
+                      sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+                      next_val BIGINT
+);
+
+CREATE TABLE import_chunk (
+                      import_id VARCHAR(64) NOT NULL,
+                      chunk_no BIGINT NOT NULL,
+                      chunk_size INT NOT NULL,
+                      row_count INT NOT NULL,
+                      PRIMARY KEY (import_id, chunk_no)
+);
+
+CREATE INDEX book_title_idx ON book (title);
+CREATE UNIQUE INDEX book_isbn_uk ON book (isbn);
+CREATE INDEX book_author_id_idx ON book (author_id);
+CREATE INDEX author_last_name_first_name_idx ON author (last_name, first_name);
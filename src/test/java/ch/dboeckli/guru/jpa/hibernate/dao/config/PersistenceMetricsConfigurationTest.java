@@ -0,0 +1,82 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PersistenceMetricsConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PersistenceMetricsConfigurationTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    SimpleMeterRegistry registry;
+
+    HibernateStatisticsMetrics hibernateStatisticsMetrics;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        registry = new SimpleMeterRegistry();
+        hibernateStatisticsMetrics = new HibernateStatisticsMetrics(sessionFactory.getStatistics(),
+            PersistenceMetricsConfiguration.QUERY_METERS_REFRESH_INTERVAL);
+        hibernateStatisticsMetrics.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hibernateStatisticsMetrics.close();
+    }
+
+    @Test
+    void testStatisticsAreEnabled() {
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled()).isTrue();
+    }
+
+    @Test
+    void testEntityLoadsAndSecondLevelCacheAreExported() {
+        bookRepository.findById(1L);
+        bookRepository.findById(1L);
+
+        assertAll(
+            () -> assertThat(registry.get("hibernate.entities.loads").functionCounter().count()).isEqualTo(1),
+            () -> assertThat(registry.get("hibernate.second.level.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(1),
+            () -> assertThat(registry.get("hibernate.second.level.cache.hit.ratio").gauge().value()).isPositive(),
+            () -> assertThat(registry.get("hibernate.statements").tag("status", "prepared").functionCounter().count()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testQueryMetersAreRefreshed() {
+        bookRepository.findBookByTitle("Clean Code");
+        hibernateStatisticsMetrics.refreshQueryMeters();
+
+        assertAll(
+            () -> assertThat(registry.get("hibernate.query.executions").functionCounter().count()).isEqualTo(1),
+            () -> assertThat(registry.get("hibernate.query.execution.count.by.query").gauges()).hasSize(1),
+            () -> assertThat(registry.get("hibernate.query.execution.count.by.query").gauge().getId().getTag("query"))
+                .contains("title")
+        );
+    }
+}
@@ -0,0 +1,152 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.PoolAcquireLatency;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.ReadWriteRoutingDataSource;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.ReplicaPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Two H2 databases stand in for primary and replica. The replica holds one book more than the primary, so every read
+ * tells which of the two answered.
+ */
+@DataJpaTest(properties = {
+    "sdjpa.read-replicas.enabled=true",
+    "sdjpa.read-replicas.replicas[0].url=" + ReadReplicaConfigurationTest.REPLICA_URL
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadReplicaConfiguration.class, BookDaoImpl.class, AuthorDaoImpl.class,
+    ReadReplicaConfigurationTest.AcquireLatencyConfiguration.class})
+// every DAO call runs in its own transaction, which is what picks primary or replica
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaConfigurationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:sdjpa-spring-data-jpa-replica-db;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MYSQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final String REPLICA_ONLY_TITLE = "Only On The Replica";
+
+    @Autowired
+    BookDaoImpl bookDao;
+
+    @Autowired
+    AuthorDaoImpl authorDao;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PoolAcquireLatency poolAcquireLatency;
+
+    JdbcTemplate replica = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), REPLICA_URL, "sa", "password"));
+
+    @BeforeAll
+    static void createReplica() {
+        SimpleDriverDataSource replica = new SimpleDriverDataSource(new org.h2.Driver(), REPLICA_URL, "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("h2-schema.sql"), new ClassPathResource("h2-data.sql")).execute(replica);
+        new JdbcTemplate(replica).update("insert into book (id, title, isbn, publisher, author_id) values (1000, ?, 'replica', 'replica', 1)",
+            REPLICA_ONLY_TITLE);
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        // the replica takes reads once its first health check, which runs in the background, has passed
+        ReplicaPool replicaPool = routingDataSource.getReplicaPool();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (replicaPool.healthyReplicas() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).update("delete from book where publisher = 'primary'");
+        new JdbcTemplate(dataSource).update("delete from author where last_name = 'Primary'");
+    }
+
+    @Test
+    void testReadOnlyTransactionsAreServedByTheReplica() {
+        long primaryCount = new JdbcTemplate(dataSource).queryForObject("select count(*) from book", Long.class);
+
+        assertAll(
+            () -> assertThat(bookDao.countAllBooks()).isEqualTo(primaryCount + 1),
+            () -> assertThat(bookDao.findBookByTitle(REPLICA_ONLY_TITLE).getIsbn()).isEqualTo("replica")
+        );
+    }
+
+    @Test
+    void testWritesGoToThePrimary() {
+        Author author = new Author();
+        author.setFirstName("Written");
+        author.setLastName("Primary");
+        Book book = new Book("Written To The Primary", "primary", "primary");
+        book.setAuthor(authorDao.saveNewAuthor(author));
+        Book saved = bookDao.saveNewBook(book);
+
+        saved.setTitle("Updated On The Primary");
+        bookDao.updateBook(saved);
+
+        String titleOnPrimary = new JdbcTemplate(dataSource).queryForObject("select title from book where id = ?", String.class, saved.getId());
+        Long rowsOnReplica = replica.queryForObject("select count(*) from book where publisher = 'primary'", Long.class);
+        assertAll(
+            () -> assertThat(titleOnPrimary).isEqualTo("Updated On The Primary"),
+            () -> assertThat(rowsOnReplica).isZero()
+        );
+    }
+
+    @Test
+    void testReplicaPoolsReportTheirAcquireLatency() {
+        // the primary pool is not decorated in this slice, only the replica can have recorded the sample
+        bookDao.countAllBooks();
+
+        assertThat(poolAcquireLatency.getAsLong()).isPositive();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class AcquireLatencyConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PoolAcquireLatency poolAcquireLatency() {
+            return new PoolAcquireLatency(Duration.ofMinutes(1));
+        }
+    }
+}
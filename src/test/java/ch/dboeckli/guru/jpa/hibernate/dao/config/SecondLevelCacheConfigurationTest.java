@@ -0,0 +1,87 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SecondLevelCacheConfiguration.class)
+// every repository call runs in its own transaction and session, so only the second-level cache can serve repeated reads
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class SecondLevelCacheConfigurationTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    AuthorRepository authorRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testEntityIsServedFromSecondLevelCache() {
+        bookRepository.findById(1L);
+        bookRepository.findById(1L);
+
+        assertAll(
+            () -> assertThat(entityManagerFactory.getCache().contains(Book.class, 1L)).isTrue(),
+            () -> assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testFindBookByTitleIsServedFromQueryCache() {
+        bookRepository.findBookByTitle("Clean Code");
+        bookRepository.findBookByTitle("Clean Code");
+
+        assertThat(statistics.getQueryRegionStatistics(Book.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testNamedQueryIsServedFromQueryCache() {
+        bookRepository.jpaNamed("Clean Code");
+        bookRepository.jpaNamed("Clean Code");
+
+        assertThat(statistics.getQueryRegionStatistics(Book.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindAuthorByNameIsServedFromQueryCache() {
+        authorRepository.findAuthorByFirstNameAndLastName("Craig", "Walls");
+        authorRepository.findAuthorByFirstNameAndLastName("Craig", "Walls");
+
+        assertAll(
+            () -> assertThat(statistics.getQueryRegionStatistics(Author.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1),
+            () -> assertThat(entityManagerFactory.getCache().contains(Author.class, 1L)).isTrue()
+        );
+    }
+}
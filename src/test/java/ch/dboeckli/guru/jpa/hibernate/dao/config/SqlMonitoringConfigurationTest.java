@@ -0,0 +1,116 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudgetExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "sdjpa.sql-monitoring.statement-budget=3")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SqlMonitoringConfiguration.class, SqlMonitoringConfigurationTest.MeterRegistryConfiguration.class})
+class SqlMonitoringConfigurationTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    StatementBudget statementBudget;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void testDataSourceIsProxied() {
+        assertThat(dataSource).isInstanceOf(ProxyDataSource.class);
+    }
+
+    @Test
+    void testStatementsAreTimedAndCountedPerTransaction() {
+        executeStatements(3);
+
+        assertAll(
+            () -> assertThat(statementBudget.currentCount()).isEqualTo(3),
+            () -> assertThat(meterRegistry.get("jdbc.statement").tag("type", "select").timer().count()).isGreaterThanOrEqualTo(3)
+        );
+    }
+
+    @Test
+    void testTransactionExceedingTheBudgetFails() {
+        executeStatements(3);
+
+        StatementBudgetExceededException exception = assertThrows(StatementBudgetExceededException.class, () -> executeStatements(1));
+
+        assertThat(exception.getMessage())
+            .contains("exceeded the budget of 3 statements")
+            .contains(SqlMonitoringConfigurationTest.class.getName());
+    }
+
+    @Test
+    void testNestedScopesAreCountedByTheOutermostScope() {
+        try (StatementBudget.Scope request = statementBudget.open(StatementBudget.HTTP_SCOPE, "GET /test")) {
+            StatementBudget.Scope nested = statementBudget.open(StatementBudget.TRANSACTION_SCOPE, "nested");
+            try {
+                executeStatements(2);
+            } finally {
+                nested.close();
+            }
+            assertThat(request.count()).isEqualTo(2);
+        }
+
+        HistogramSnapshot snapshot = meterRegistry.get("jdbc.statements.per.scope").tag("scope", StatementBudget.HTTP_SCOPE)
+            .summary().takeSnapshot();
+        assertAll(
+            () -> assertThat(snapshot.count()).isEqualTo(1),
+            () -> assertThat(snapshot.total()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void testSeparateScopeIsHeldToTheBudgetOnItsOwn() {
+        executeStatements(2);
+
+        StatementBudget.Scope separate = statementBudget.openSeparate("dao", "BookDao.findAll");
+        try {
+            executeStatements(2);
+            assertThrows(StatementBudgetExceededException.class, () -> executeStatements(2));
+        } finally {
+            separate.close();
+        }
+
+        assertThat(statementBudget.currentCount()).isEqualTo(2);
+    }
+
+    private void executeStatements(int count) {
+        for (int i = 0; i < count; i++) {
+            entityManager.createNativeQuery("select count(*) from book").getSingleResult();
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST_NANOS = Duration.ofMillis(1).toNanos();
+    private static final long SLOW_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong acquireLatency = new AtomicLong(FAST_NANOS);
+
+    @Test
+    void testLimitBacksOffWhileAcquiringIsSlow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, Duration.ZERO, 0, Duration.ZERO);
+        acquireLatency.set(SLOW_NANOS);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().close();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void testLimitBacksOffOncePerIntervalWhileAcquiringIsSlow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, Duration.ofMinutes(1), 0, Duration.ZERO);
+        acquireLatency.set(SLOW_NANOS);
+
+        // all calls finish while the same slow average is reported
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().close();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void testLimitGrowsWhileItIsUsedAndAcquiringIsFast() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 0, Duration.ZERO);
+
+        // the only permit is in use, so the limit was reached and grows by one
+        limiter.acquire().close();
+        // two permits, one in use: the limit is not reached and stays
+        limiter.acquire().close();
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void testCallBeyondTheLimitIsRejectedWhenTheQueueIsFull() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 0, Duration.ZERO);
+
+        AutoCloseable holder = holdPermitInOtherThread(limiter);
+        try {
+            assertThrows(ConcurrencyLimitExceededException.class, limiter::acquire);
+        } finally {
+            holder.close();
+        }
+        assertAll(
+            () -> assertThat(limiter.getRejected()).isEqualTo(1),
+            () -> assertThat(limiter.getCalls()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void testQueuedCallGetsThePermitOnceItIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        AutoCloseable holder = holdPermitInOtherThread(limiter);
+
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            try {
+                return limiter.getInFlight();
+            } finally {
+                permit.close();
+            }
+        });
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        holder.close();
+
+        assertAll(
+            () -> assertThat(queued.get()).isEqualTo(1),
+            () -> assertThat(limiter.getRejected()).isZero()
+        );
+    }
+
+    @Test
+    void testNestedCallsShareThePermit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 0, Duration.ZERO);
+
+        AdaptiveConcurrencyLimiter.Permit outer = limiter.acquire();
+        try {
+            AdaptiveConcurrencyLimiter.Permit nested = limiter.acquire();
+            try {
+                assertThat(limiter.getInFlight()).isEqualTo(1);
+            } finally {
+                nested.close();
+            }
+        } finally {
+            outer.close();
+        }
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueueSize, Duration maxWait) {
+        return limiter(initialLimit, Duration.ofSeconds(1), maxQueueSize, maxWait);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration backoffInterval, int maxQueueSize,
+                                               Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100, 0.9, backoffInterval, Duration.ofMillis(20),
+            maxQueueSize, maxWait, acquireLatency::get);
+    }
+
+    private static AutoCloseable holdPermitInOtherThread(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                permit.close();
+            }
+        });
+        held.await();
+        return () -> {
+            release.countDown();
+            holder.join();
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class AuthorNameIndexTest {
+
+    AuthorNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AuthorNameIndex();
+        index.rebuild(() -> Stream.of(
+            new AuthorName(3L, "Robert", "Martin"),
+            new AuthorName(4L, "Martin", "Fowler"),
+            new AuthorName(5L, "Kent", "Beck"),
+            new AuthorName(8L, "Marcel", "Smith"),
+            new AuthorName(9L, "Mara", "Mara")
+        ));
+    }
+
+    @Test
+    void testCompleteMatchesFirstAndLastNamesIgnoringCase() {
+        assertThat(index.complete("MAR", 10)).extracting(AuthorName::id).containsExactly(9L, 8L, 3L, 4L);
+    }
+
+    @Test
+    void testCompleteLimitsAndSkipsBlankPrefixes() {
+        assertAll(
+            () -> assertThat(index.complete("mar", 2)).extracting(AuthorName::id).containsExactly(9L, 8L),
+            () -> assertThat(index.complete(" ", 10)).isEmpty(),
+            () -> assertThat(index.complete("mar", 0)).isEmpty(),
+            () -> assertThat(index.complete("zz", 10)).isEmpty(),
+            () -> assertThat(index.complete("martinez", 10)).isEmpty()
+        );
+    }
+
+    @Test
+    void testPutAddsAndReplaces() {
+        index.put(new AuthorName(10L, "Ward", "Cunningham"));
+        index.put(new AuthorName(5L, "Kent", "Marsh"));
+
+        assertAll(
+            () -> assertThat(index.complete("cun", 10)).extracting(AuthorName::id).containsExactly(10L),
+            () -> assertThat(index.complete("beck", 10)).isEmpty(),
+            () -> assertThat(index.complete("kent", 10)).containsExactly(new AuthorName(5L, "Kent", "Marsh")),
+            () -> assertThat(index.complete("mars", 10)).extracting(AuthorName::id).containsExactly(5L),
+            () -> assertThat(index.size()).isEqualTo(6)
+        );
+    }
+
+    @Test
+    void testPatchKeepsNamesThatAreNotGiven() {
+        index.patch(3L, null, "Cecil");
+        index.patch(99L, "Unknown", null);
+
+        assertAll(
+            () -> assertThat(index.complete("cecil", 10)).containsExactly(new AuthorName(3L, "Robert", "Cecil")),
+            () -> assertThat(index.complete("unknown", 10)).isEmpty(),
+            () -> assertThat(index.size()).isEqualTo(5)
+        );
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(4L);
+        index.remove(99L);
+
+        assertAll(
+            () -> assertThat(index.complete("fow", 10)).isEmpty(),
+            () -> assertThat(index.complete("martin", 10)).extracting(AuthorName::id).containsExactly(3L),
+            () -> assertThat(index.size()).isEqualTo(4)
+        );
+    }
+
+    @Test
+    void testAuthorsWithoutNamesAreNotIndexed() {
+        index.putAll(List.of(new AuthorName(11L, null, " "), new AuthorName(null, "No", "Id")));
+
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void testWriteDuringRebuildIsAppliedOnTopOfTheSnapshot() throws InterruptedException {
+        AuthorName added = new AuthorName(12L, "Eric", "Evans");
+        Thread[] writer = new Thread[1];
+
+        index.rebuild(() -> {
+            // the author committed after the snapshot was read, its writer has to wait for the rebuild
+            writer[0] = Thread.ofPlatform().start(() -> index.put(added));
+            while (writer[0].getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            return Stream.of(new AuthorName(3L, "Robert", "Martin"));
+        });
+        writer[0].join();
+
+        assertAll(
+            () -> assertThat(index.complete("evans", 10)).containsExactly(added),
+            () -> assertThat(index.size()).isEqualTo(2)
+        );
+    }
+}
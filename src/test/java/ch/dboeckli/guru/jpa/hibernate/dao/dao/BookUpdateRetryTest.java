@@ -0,0 +1,126 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+// the whole DAO stack: retry aspect, concurrency limit and transaction around a real row
+@SpringBootTest
+class BookUpdateRetryTest {
+
+    private static final String METHOD = "BookDaoImpl.updateBook";
+
+    @Autowired
+    BookDaoImpl bookDaoImpl;
+
+    @Autowired
+    AdaptiveConcurrencyLimiter daoConcurrencyLimiter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    BeforeSaveHook beforeSaveHook;
+
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        book = bookDaoImpl.saveNewBook(new Book("Retry Original", "978-0000000033", "Retry Press"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        beforeSaveHook.action.set(null);
+        bookDaoImpl.deleteBookById(book.getId());
+    }
+
+    @Test
+    void testUpdateThatLostToAConcurrentUpdateIsRetriedAndRecovers() {
+        long version = bookDaoImpl.findVersionById(book.getId()).orElseThrow();
+        double recoveredBefore = count("dao.optimistic.lock.retried.calls", "outcome", "recovered");
+        double conflictsBefore = count("dao.optimistic.lock.conflicts", "method", METHOD);
+        int savesBefore = beforeSaveHook.saves.get();
+        // another caller commits its update after the first attempt read the row and before it is flushed
+        beforeSaveHook.action.set(() -> {
+            Thread concurrent = Thread.ofPlatform().start(() -> bookDaoImpl.updateBook(withTitle("Retry Concurrent")));
+            join(concurrent);
+        });
+
+        Book updated = bookDaoImpl.updateBook(withTitle("Retry Winner"));
+
+        assertAll(
+            () -> assertThat(updated.getTitle()).isEqualTo("Retry Winner"),
+            () -> assertThat(bookDaoImpl.findBookByTitle("Retry Winner").getId()).isEqualTo(book.getId()),
+            () -> assertThat(bookDaoImpl.findVersionById(book.getId())).contains(version + 2),
+            // the first attempt, the concurrent update and the retry
+            () -> assertThat(beforeSaveHook.saves.get() - savesBefore).isEqualTo(3),
+            () -> assertThat(count("dao.optimistic.lock.conflicts", "method", METHOD) - conflictsBefore).isEqualTo(1),
+            () -> assertThat(count("dao.optimistic.lock.retried.calls", "outcome", "recovered") - recoveredBefore).isEqualTo(1),
+            () -> assertThat(daoConcurrencyLimiter.getInFlight()).isZero()
+        );
+    }
+
+    private Book withTitle(String title) {
+        Book changed = new Book(title, book.getIsbn(), book.getPublisher());
+        changed.setId(book.getId());
+        return changed;
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.find(name).tag(tag, value).tag("method", METHOD).counters().stream()
+            .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class HookConfiguration {
+
+        @Bean
+        BeforeSaveHook beforeSaveHook() {
+            return new BeforeSaveHook();
+        }
+    }
+
+    /**
+     * Runs the armed action once, right before the next book is saved.
+     */
+    @Aspect
+    static class BeforeSaveHook {
+
+        final AtomicReference<Runnable> action = new AtomicReference<>();
+        final AtomicInteger saves = new AtomicInteger();
+
+        @Around("execution(* ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository.save(..))")
+        public Object beforeSave(ProceedingJoinPoint joinPoint) throws Throwable {
+            saves.incrementAndGet();
+            Runnable armed = action.getAndSet(null);
+            if (armed != null) {
+                armed.run();
+            }
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class BoundedVirtualThreadExecutorTest {
+
+    @Test
+    void testConcurrencyIsBounded() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor("test", 3, meterRegistry)) {
+            List<CompletableFuture<Integer>> futures = IntStream.range(0, 50)
+                .mapToObj(i -> executor.supply(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep();
+                    running.decrementAndGet();
+                    return i;
+                }))
+                .toList();
+
+            assertThat(futures.stream().map(CompletableFuture::join).toList()).hasSize(50);
+        }
+
+        assertAll(
+            () -> assertThat(maxRunning.get()).isEqualTo(3),
+            () -> assertThat(meterRegistry.get("dao.async.executor.completed").functionCounter().count()).isEqualTo(50),
+            () -> assertThat(meterRegistry.get("dao.async.executor.active").gauge().value()).isZero(),
+            () -> assertThat(meterRegistry.get("dao.async.executor.queued").gauge().value()).isZero()
+        );
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.health.ConcurrencyLimiterHealthIndicator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the rejections take the context out of readiness
+@DirtiesContext
+@SpringBootTest(properties = {
+    "sdjpa.dao-concurrency.max-wait=50ms",
+    "sdjpa.dao-concurrency.readiness-min-rejections=3",
+    "sdjpa.dao-concurrency.readiness-rejection-ratio=0"
+})
+class ConcurrencyLimitAspectTest {
+
+    @Autowired
+    BookDaoImpl bookDaoImpl;
+
+    @Autowired
+    AdaptiveConcurrencyLimiter daoConcurrencyLimiter;
+
+    @Autowired
+    ConcurrencyLimiterHealthIndicator concurrencyLimiterHealthIndicator;
+
+    @Test
+    void testDaoCallIsRejectedWhileTheLimitIsTakenAndReadinessGoesOutOfService() throws InterruptedException {
+        assertThat(bookDaoImpl.findBookByTitle("Clean Code")).isNotNull();
+
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = holdAllPermits(release);
+        Status afterOneRejection;
+        try {
+            assertThrows(ConcurrencyLimitExceededException.class, () -> bookDaoImpl.findBookByTitle("Clean Code"));
+            afterOneRejection = concurrencyLimiterHealthIndicator.health(false).getStatus();
+            assertThrows(ConcurrencyLimitExceededException.class, () -> bookDaoImpl.findBookByTitle("Clean Code"));
+            assertThrows(ConcurrencyLimitExceededException.class, () -> bookDaoImpl.findBookByTitle("Clean Code"));
+        } finally {
+            release.countDown();
+            for (Thread holder : holders) {
+                holder.join();
+            }
+        }
+
+        assertAll(
+            () -> assertThat(afterOneRejection).isEqualTo(Status.UP),
+            () -> assertThat(daoConcurrencyLimiter.getRejected()).isEqualTo(3),
+            () -> assertThat(concurrencyLimiterHealthIndicator.health(false).getStatus()).isEqualTo(Status.OUT_OF_SERVICE),
+            () -> assertThat(bookDaoImpl.findBookByTitle("Clean Code")).isNotNull()
+        );
+    }
+
+    private List<Thread> holdAllPermits(CountDownLatch release) throws InterruptedException {
+        int limit = daoConcurrencyLimiter.getLimit();
+        CountDownLatch held = new CountDownLatch(limit);
+        List<Thread> holders = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            holders.add(Thread.ofVirtual().start(() -> {
+                AdaptiveConcurrencyLimiter.Permit permit = daoConcurrencyLimiter.acquire();
+                try {
+                    held.countDown();
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    permit.close();
+                }
+            }));
+        }
+        held.await();
+        return holders;
+    }
+}
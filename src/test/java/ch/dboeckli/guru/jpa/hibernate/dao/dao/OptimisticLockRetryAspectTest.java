@@ -0,0 +1,113 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticLockRetryAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConflictingUpdater updater;
+    private ConflictingUpdater proxy;
+
+    @BeforeEach
+    void setUp() {
+        updater = new ConflictingUpdater();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(updater);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new OptimisticLockRetryAspect(3, Duration.ofMillis(1), 2.0, Duration.ofMillis(5),
+            Duration.ZERO, meterRegistry));
+        proxy = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testConflictingUpdateIsRetriedUntilItSucceeds() {
+        updater.conflicts.set(2);
+
+        assertAll(
+            () -> assertThat(proxy.update()).isEqualTo(3),
+            () -> assertThat(count("dao.optimistic.lock.conflicts")).isEqualTo(2),
+            () -> assertThat(count("dao.optimistic.lock.retries")).isEqualTo(2),
+            () -> assertThat(outcome("recovered")).isEqualTo(1),
+            () -> assertThat(outcome("exhausted")).isZero()
+        );
+    }
+
+    @Test
+    void testConflictIsRethrownWhenTheRetriesAreExhausted() {
+        updater.conflicts.set(10);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, proxy::update);
+        assertAll(
+            () -> assertThat(updater.attempts.get()).isEqualTo(4),
+            () -> assertThat(count("dao.optimistic.lock.conflicts")).isEqualTo(4),
+            () -> assertThat(count("dao.optimistic.lock.retries")).isEqualTo(3),
+            () -> assertThat(outcome("exhausted")).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testStaleVersionOfTheCallerIsNotRetried() {
+        assertThrows(StaleVersionException.class, proxy::updateStale);
+        assertAll(
+            () -> assertThat(updater.attempts.get()).isEqualTo(1),
+            () -> assertThat(count("dao.optimistic.lock.retries")).isZero()
+        );
+    }
+
+    @Test
+    void testConflictInsideTheTransactionOfTheCallerIsNotRetried() {
+        updater.conflicts.set(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, proxy::update);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(updater.attempts.get()).isEqualTo(1);
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.find("dao.optimistic.lock.retried.calls").tag("outcome", outcome).counters().stream()
+            .mapToDouble(c -> c.count()).sum();
+    }
+
+    static class ConflictingUpdater {
+
+        final AtomicInteger conflicts = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        @RetryOnConflict
+        public int update() {
+            int attempt = attempts.incrementAndGet();
+            if (conflicts.getAndDecrement() > 0) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, 1L);
+            }
+            return attempt;
+        }
+
+        @RetryOnConflict
+        public int updateStale() {
+            attempts.incrementAndGet();
+            throw new StaleVersionException(Book.class, 1L, 1L, 2L);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao.h2;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AsyncBookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AsyncBookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BoundedVirtualThreadExecutor;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import({BookDaoImpl.class, DaoStatementBudgetConfiguration.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Slf4j
+class AsyncBookDaoTest {
+
+    @Autowired
+    BookDao bookDao;
+
+    BoundedVirtualThreadExecutor executor;
+
+    AsyncBookDao asyncBookDao;
+
+    @BeforeEach
+    void setUp() {
+        executor = new BoundedVirtualThreadExecutor("test", 4, new SimpleMeterRegistry());
+        asyncBookDao = new AsyncBookDaoImpl(bookDao, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testFindBookByTitle() {
+        Book book = asyncBookDao.findBookByTitle("Clean Code").join();
+
+        assertThat(book.getTitle()).isEqualTo("Clean Code");
+    }
+
+    @Test
+    void testFindBookByTitleNotFound() {
+        CompletionException exception = assertThrows(CompletionException.class,
+            () -> asyncBookDao.findBookByTitle("foobar4").join());
+
+        assertThat(exception).hasCauseInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void testFindBooksByTitles() {
+        List<String> existingTitles = bookDao.findAllBooks().stream().map(Book::getTitle).toList();
+        List<String> titles = IntStream.range(0, 500)
+            .mapToObj(i -> i % 2 == 0 ? existingTitles.get(i % existingTitles.size()) : "missing book " + i)
+            .toList();
+
+        Map<String, Book> books = asyncBookDao.findBooksByTitles(titles).join();
+
+        assertAll(
+            () -> assertThat(books).hasSize(existingTitles.size()),
+            () -> assertThat(books.keySet()).containsExactlyInAnyOrderElementsOf(existingTitles),
+            () -> assertThat(books).allSatisfy((title, book) -> assertThat(book.getTitle()).isEqualTo(title))
+        );
+    }
+}
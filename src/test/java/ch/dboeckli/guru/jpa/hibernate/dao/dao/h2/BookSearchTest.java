@@ -0,0 +1,178 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao.h2;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorPatch;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.search.BookSearchIndexer;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// the index is only written when a transaction commits
+@Import({BookDaoImpl.class, AuthorDaoImpl.class, DaoStatementBudgetConfiguration.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookSearchTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    BookDao bookDao;
+
+    @Autowired
+    AuthorDao authorDao;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Author author;
+    Book book;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        new BookSearchIndexer(entityManagerFactory, 1, 25, new SimpleMeterRegistry()).reindex();
+
+        Author newAuthor = new Author();
+        newAuthor.setFirstName("Zacharias");
+        newAuthor.setLastName("Quimby");
+        author = authorDao.saveNewAuthor(newAuthor);
+
+        Book newBook = new Book("Xylophone Tuning Handbook", "978-0000000019", "Quaternion Press");
+        newBook.setAuthor(author);
+        book = bookDao.saveNewBook(newBook);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookDao.deleteBooksByAuthorId(author.getId());
+        authorDao.deleteAuthorById(author.getId());
+    }
+
+    @Test
+    void testReindexedBooksAreSearchable() {
+        List<String> titles = titles(bookDao.searchBooks("domain driven", FIRST_PAGE));
+
+        assertThat(titles).contains("Domain-Driven Design", "Implementing Domain-Driven Design", "Domain-Driven Design Distilled");
+    }
+
+    @Test
+    void testSearchByAuthorName() {
+        List<Book> books = bookDao.searchBooks("evans", FIRST_PAGE);
+
+        assertThat(books).isNotEmpty().allSatisfy(found -> assertThat(found.getAuthorId()).isEqualTo(2L));
+    }
+
+    @Test
+    void testAllTermsHaveToMatch() {
+        assertThat(titles(bookDao.searchBooks("xylophone quimby", FIRST_PAGE))).containsExactly("Xylophone Tuning Handbook");
+        assertThat(bookDao.searchBooks("xylophone evans", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    void testSavedBookIsIndexed() {
+        assertThat(titles(bookDao.searchBooks("quaternion", FIRST_PAGE))).containsExactly("Xylophone Tuning Handbook");
+    }
+
+    @Test
+    void testUpdatedBookIsReindexed() {
+        book.setTitle("Marimba Tuning Handbook");
+        bookDao.updateBook(book);
+
+        assertThat(bookDao.searchBooks("xylophone", FIRST_PAGE)).isEmpty();
+        assertThat(titles(bookDao.searchBooks("marimba", FIRST_PAGE))).containsExactly("Marimba Tuning Handbook");
+    }
+
+    @Test
+    void testDeletedBookIsRemovedFromIndex() {
+        bookDao.deleteBookById(book.getId());
+
+        assertThat(bookDao.searchBooks("xylophone", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    void testBulkRenamedPublisherIsReindexed() {
+        bookDao.renamePublisher("Quaternion Press", "Octonion Press");
+
+        assertThat(bookDao.searchBooks("quaternion", FIRST_PAGE)).isEmpty();
+        assertThat(titles(bookDao.searchBooks("octonion", FIRST_PAGE))).containsExactly("Xylophone Tuning Handbook");
+    }
+
+    @Test
+    void testBulkDeletedBooksAreRemovedFromIndex() {
+        bookDao.deleteBooksByIds(List.of(book.getId()));
+
+        assertThat(bookDao.searchBooks("xylophone", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    void testPatchedAuthorNameIsReindexed() {
+        authorDao.patchAuthor(author.getId(), new AuthorPatch(null, "Quill"));
+
+        assertThat(bookDao.searchBooks("quimby", FIRST_PAGE)).isEmpty();
+        assertThat(titles(bookDao.searchBooks("quill", FIRST_PAGE))).containsExactly("Xylophone Tuning Handbook");
+    }
+
+    @Test
+    void testRefreshCatchesUpWithWritesPastHibernateWithoutPurging() {
+        Book newBook = new Book("Vibraphone Tuning Handbook", "978-0000000026", "Quaternion Press");
+        newBook.setAuthor(author);
+        Book removed = bookDao.saveNewBook(newBook);
+        jdbcTemplate.update("update book set title = ? where id = ?", "Marimba Tuning Handbook", book.getId());
+        jdbcTemplate.update("delete from book where id = ?", removed.getId());
+
+        new BookSearchIndexer(entityManagerFactory, 1, 2, new SimpleMeterRegistry()).refresh();
+
+        assertThat(titles(bookDao.searchBooks("quaternion", FIRST_PAGE))).containsExactly("Marimba Tuning Handbook");
+        assertThat(titles(bookDao.searchBooks("domain driven", FIRST_PAGE))).contains("Domain-Driven Design");
+    }
+
+    @Test
+    void testSearchPagedAndSortedByTitle() {
+        Pageable secondPage = PageRequest.of(1, 2, Sort.by("title"));
+
+        assertThat(titles(bookDao.searchBooks("spring action", secondPage)))
+            .containsExactly("Spring Data in Action", "Spring Security in Action");
+    }
+
+    @Test
+    void testSearchUnpaged() {
+        assertThat(titles(bookDao.searchBooks("xylophone", Pageable.unpaged()))).containsExactly("Xylophone Tuning Handbook");
+    }
+
+    @Test
+    void testSearchSortedByUnsupportedProperty() {
+        Pageable byIsbn = PageRequest.of(0, 10, Sort.by("isbn"));
+
+        assertThatThrownBy(() -> bookDao.searchBooks("spring", byIsbn)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).toList();
+    }
+}
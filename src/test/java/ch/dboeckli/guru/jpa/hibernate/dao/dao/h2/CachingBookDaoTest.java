@@ -0,0 +1,144 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao.h2;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookPatch;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.CachingBookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import({BookDaoImpl.class, DaoStatementBudgetConfiguration.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Slf4j
+class CachingBookDaoTest {
+
+    @Autowired
+    BookDaoImpl bookDaoImpl;
+
+    MeterRegistry meterRegistry;
+
+    CachingBookDao bookDao;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookDao = new CachingBookDao(bookDaoImpl, 100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void testGetByIdIsCached() {
+        Book first = bookDao.getById(3L);
+        first.setTitle("changed by caller");
+        Book second = bookDao.getById(3L);
+
+        assertAll(
+            () -> assertThat(second).isNotSameAs(first),
+            () -> assertThat(second.getTitle()).isEqualTo("Spring in Action, 6th Edition"),
+            () -> assertThat(hitRatio("getById")).isEqualTo(0.5)
+        );
+    }
+
+    @Test
+    void testFindBookByTitleIsCached() {
+        bookDao.findBookByTitle("Clean Code");
+        Book book = bookDao.findBookByTitle("Clean Code");
+
+        assertAll(
+            () -> assertThat(book.getTitle()).isEqualTo("Clean Code"),
+            () -> assertThat(hitRatio("findBookByTitle")).isEqualTo(0.5)
+        );
+    }
+
+    @Test
+    void testUpdateBookEvicts() {
+        Book book = bookDao.findBookByTitle("Clean Code");
+        book.setTitle("Clean Code, 2nd Edition");
+
+        bookDao.updateBook(book);
+
+        assertAll(
+            () -> assertThrows(EntityNotFoundException.class, () -> bookDao.findBookByTitle("Clean Code")),
+            () -> assertThat(bookDao.findBookByTitle("Clean Code, 2nd Edition").getId()).isEqualTo(book.getId()),
+            () -> assertThat(bookDao.getById(book.getId()).getTitle()).isEqualTo("Clean Code, 2nd Edition")
+        );
+    }
+
+    @Test
+    void testDeleteBookByIdEvicts() {
+        Book saved = bookDao.saveNewBook(new Book("my book", "1234", "Self"));
+        bookDao.getById(saved.getId());
+
+        bookDao.deleteBookById(saved.getId());
+
+        assertThrows(EntityNotFoundException.class, () -> bookDao.findBookByTitle("my book"));
+    }
+
+    @Test
+    void testLoadOverlappingWithAnEvictionIsNotCached() {
+        CachingBookDao[] racingDao = new CachingBookDao[1];
+        // a concurrent writer evicts while the cache is loading the book
+        BookDao delegate = (BookDao) Proxy.newProxyInstance(BookDao.class.getClassLoader(), new Class<?>[]{BookDao.class},
+            (proxy, method, args) -> {
+                try {
+                    Object result = method.invoke(bookDaoImpl, args);
+                    if (method.getName().equals("findBookByTitle") && misses("findBookByTitle") == 1) {
+                        racingDao[0].patchBook(((Book) result).getId(), new BookPatch(null, null, "Racing Press", null));
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        racingDao[0] = new CachingBookDao(delegate, 100, Duration.ofMinutes(1), meterRegistry);
+
+        racingDao[0].findBookByTitle("Clean Code");
+        racingDao[0].findBookByTitle("Clean Code");
+
+        assertThat(misses("findBookByTitle")).isEqualTo(2);
+    }
+
+    @Test
+    void testWriteEvictsAgainWhenItsTransactionCompletes() {
+        Book book = bookDao.findBookByTitle("Clean Code");
+        bookDao.patchBook(book.getId(), new BookPatch(null, null, "Patched Press", null));
+        // cached inside the writing transaction, which reads its own write
+        bookDao.findBookByTitle("Clean Code");
+
+        TestTransaction.end();
+        TestTransaction.start();
+        bookDao.findBookByTitle("Clean Code");
+
+        assertAll(
+            () -> assertThat(misses("findBookByTitle")).isEqualTo(3),
+            () -> assertThat(hitRatio("findBookByTitle")).isZero()
+        );
+    }
+
+    private double misses(String method) {
+        return meterRegistry.get("dao.cache.gets").tag("method", method).tag("result", "miss").counter().count();
+    }
+
+    private double hitRatio(String method) {
+        return meterRegistry.get("dao.cache.hit.ratio").tag("method", method).gauge().value();
+    }
+}
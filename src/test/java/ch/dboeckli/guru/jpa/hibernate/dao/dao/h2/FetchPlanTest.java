@@ -0,0 +1,157 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao.h2;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@Import({BookDaoImpl.class, AuthorDaoImpl.class, DaoStatementBudgetConfiguration.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Slf4j
+class FetchPlanTest {
+
+    @Autowired
+    BookDao bookDao;
+
+    @Autowired
+    AuthorDao authorDao;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        entityManager.clear();
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindAllBooksWithAuthorUsesOneQuery() {
+        List<Book> books = bookDao.findAllBooksWithAuthor(PageRequest.of(0, 10));
+        List<String> lastNames = books.stream().map(book -> book.getAuthor().getLastName()).toList();
+
+        assertAll(
+            () -> assertThat(lastNames).hasSize(10).doesNotContainNull(),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testLazyAuthorsAreBatchFetched() {
+        List<Book> books = bookDao.findAllBooks(PageRequest.of(0, 10));
+        List<String> lastNames = books.stream().map(book -> book.getAuthor().getLastName()).toList();
+
+        assertAll(
+            () -> assertThat(lastNames).hasSize(10).doesNotContainNull(),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void testGetByIdWithAuthor() {
+        Book book = bookDao.getByIdWithAuthor(5L);
+
+        assertAll(
+            () -> assertThat(Hibernate.isInitialized(book.getAuthor())).isTrue(),
+            () -> assertThat(book.getAuthor().getLastName()).isEqualTo("Martin"),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testFindBookWithAuthorByTitle() {
+        Book book = bookDao.findBookWithAuthorByTitle("Domain-Driven Design");
+
+        assertAll(
+            () -> assertThat(Hibernate.isInitialized(book.getAuthor())).isTrue(),
+            () -> assertThat(book.getAuthor().getLastName()).isEqualTo("Evans"),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testGetAuthorIdDoesNotLoadAuthor() {
+        Book book = bookDao.findBookByTitle("Clean Code");
+
+        assertAll(
+            () -> assertThat(book.getAuthorId()).isEqualTo(3L),
+            () -> assertThat(Hibernate.isInitialized(book.getAuthor())).isFalse(),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testGetByIdWithBooks() {
+        Author author = authorDao.getByIdWithBooks(1L);
+
+        assertAll(
+            () -> assertThat(author.getBooks()).hasSize(6),
+            () -> assertThat(author.getBooks()).allMatch(book -> book.getAuthor() == author),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testGetByIdsUsesOneQueryAndKeepsOrder() {
+        List<Book> books = bookDao.getByIds(List.of(5L, 1L, 999L, 3L, 1L));
+
+        assertAll(
+            () -> assertThat(books).extracting(Book::getId).containsExactly(5L, 1L, 3L),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testGetByIdsSkipsBooksInPersistenceContext() {
+        Book loaded = entityManager.find(Book.class, 2L);
+        statistics.clear();
+
+        List<Book> books = bookDao.getByIds(List.of(2L, 4L));
+
+        assertAll(
+            () -> assertThat(books).extracting(Book::getId).containsExactly(2L, 4L),
+            () -> assertThat(books.getFirst()).isSameAs(loaded),
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testGetByIdsChunksAuthors() {
+        List<Long> ids = LongStream.rangeClosed(1, 60).boxed().toList();
+
+        List<Author> authors = authorDao.getByIds(ids);
+
+        assertAll(
+            () -> assertThat(authors).extracting(Author::getId).isSorted().isSubsetOf(ids),
+            // default_batch_fetch_size is 50
+            () -> assertThat(statistics.getPrepareStatementCount()).isEqualTo(2)
+        );
+    }
+}
@@ -2,9 +2,14 @@ package ch.dboeckli.guru.jpa.hibernate.dao.dao.mysql;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
 import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorPatch;
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
@@ -16,13 +21,14 @@ import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ActiveProfiles("test_mysql")
-@Import(AuthorDaoImpl.class)
+@Import({AuthorDaoImpl.class, DaoStatementBudgetConfiguration.class})
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Slf4j
@@ -31,6 +37,9 @@ class AuthorDaoImplIT {
     @Autowired
     AuthorDao authorDao;
 
+    @Autowired
+    EntityManager entityManager;
+
     @Test
     void testDeleteAuthor() {
         Author author = new Author();
@@ -59,6 +68,27 @@ class AuthorDaoImplIT {
         assertThat(updated.getLastName()).isEqualTo("Thompson");
     }
 
+    @Test
+    void testPatchAuthor() {
+        Author author = new Author();
+        author.setFirstName("john");
+        author.setLastName("t");
+        Author saved = authorDao.saveNewAuthor(author);
+
+        int updated = authorDao.patchAuthor(saved.getId(), new AuthorPatch(null, "Thompson"));
+
+        Author fetched = authorDao.findAuthorByName("john", "Thompson");
+        assertAll(
+            () -> assertThat(updated).isEqualTo(1),
+            () -> assertThat(fetched.getId()).isEqualTo(saved.getId())
+        );
+    }
+
+    @Test
+    void testPatchAuthorWithoutChanges() {
+        assertThat(authorDao.patchAuthor(1L, new AuthorPatch(null, null))).isZero();
+    }
+
     @Test
     void testSaveAuthor() {
         Author author = new Author();
@@ -69,6 +99,33 @@ class AuthorDaoImplIT {
         assertThat(saved).isNotNull();
     }
 
+    @Test
+    void testSaveAllNewAuthors() {
+        List<Author> authors = IntStream.range(0, 120)
+            .mapToObj(i -> {
+                Author author = new Author();
+                author.setFirstName("first " + i);
+                author.setLastName("Bulk");
+                return author;
+            })
+            .toList();
+
+        List<Author> saved = authorDao.saveAllNewAuthors(authors);
+
+        assertAll(
+            () -> assertThat(saved).hasSize(120),
+            () -> assertThat(saved).extracting(Author::getId).doesNotContainNull().doesNotHaveDuplicates(),
+            () -> assertThat(authorDao.countAuthorsByLastName("Bulk")).isEqualTo(120)
+        );
+    }
+
+    @Test
+    void testCompleteAuthorNamesWithoutIndexQueriesPrefix() {
+        List<AuthorName> completions = authorDao.completeAuthorNames("MAR", 10);
+
+        assertThat(completions).extracting(AuthorName::lastName).containsExactly("Fowler", "Martin", "Smith");
+    }
+
     @Test
     void testGetAuthorByName() {
         Author author = authorDao.findAuthorByName("Craig", "Walls");
@@ -99,6 +156,19 @@ class AuthorDaoImplIT {
         );
     }
 
+    @Test
+    void findAllAuthorNamesByLastName() {
+        List<AuthorName> authors = authorDao.findAllAuthorNamesByLastName("Smith",
+            PageRequest.of(0, 10, Sort.by(Sort.Order.desc("firstName"))));
+
+        assertAll(
+            () -> assertThat(authors).hasSize(10),
+            () -> assertThat(authors.getFirst().firstName()).isEqualTo("Yugal"),
+            () -> assertThat(authors).allMatch(author -> author.lastName().equals("Smith")),
+            () -> assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero()
+        );
+    }
+
     @Test
     void findAllAuthorsByLastNameSortLastNameDesc() {
         List<Author> authors = authorDao.findAllAuthorsByLastName("Smith",
@@ -147,4 +217,11 @@ class AuthorDaoImplIT {
             }
         );
     }
+
+    @Test
+    void countAuthorsByLastName() {
+        long count = authorDao.countAuthorsByLastName("Smith");
+
+        assertThat(count).isEqualTo(40);
+    }
 }
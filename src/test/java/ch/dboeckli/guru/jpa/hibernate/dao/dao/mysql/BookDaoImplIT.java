@@ -2,10 +2,19 @@ package ch.dboeckli.guru.jpa.hibernate.dao.dao.mysql;
 
 import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
 import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookPatch;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.KeysetPage;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.StaleVersionException;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.UpsertResult;
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
 import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookSummary;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
@@ -16,14 +25,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ActiveProfiles("test_mysql")
-@Import(BookDaoImpl.class)
+@Import({BookDaoImpl.class, DaoStatementBudgetConfiguration.class})
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Slf4j
@@ -32,6 +43,12 @@ class BookDaoImplIT {
     @Autowired
     BookDao bookDao;
 
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     void testGetById() {
         Book book = bookDao.getById(3L);
@@ -64,6 +81,22 @@ class BookDaoImplIT {
         assertThat(saved).isNotNull();
     }
 
+    @Test
+    void testSaveAllNewBooks() {
+        long countBefore = bookDao.countAllBooks();
+        List<Book> books = IntStream.range(0, 120)
+            .mapToObj(i -> new Book("bulk book " + i, "bulk-isbn-" + i, "Self"))
+            .toList();
+
+        List<Book> saved = bookDao.saveAllNewBooks(books);
+
+        assertAll(
+            () -> assertThat(saved).hasSize(120),
+            () -> assertThat(saved).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates(),
+            () -> assertThat(bookDao.countAllBooks()).isEqualTo(countBefore + 120)
+        );
+    }
+
     @Test
     void testUpdateBook() {
         Book book = new Book();
@@ -84,6 +117,45 @@ class BookDaoImplIT {
         assertThat(fetched.getTitle()).isEqualTo("New Book");
     }
 
+    @Test
+    void testPatchBook() {
+        Book saved = bookDao.saveNewBook(new Book("my book", "1234", "Self"));
+
+        int updated = bookDao.patchBook(saved.getId(), BookPatch.title("Patched Book"));
+
+        Book fetched = bookDao.findBookByTitle("Patched Book");
+        assertAll(
+            () -> assertThat(updated).isEqualTo(1),
+            () -> assertThat(fetched.getId()).isEqualTo(saved.getId()),
+            () -> assertThat(fetched.getIsbn()).isEqualTo("1234"),
+            () -> assertThat(fetched.getPublisher()).isEqualTo("Self")
+        );
+    }
+
+    @Test
+    void testUpdateBookWithStaleVersion() {
+        Book saved = bookDao.saveNewBook(new Book("versioned book", "versioned-isbn", "Self"));
+        Book stale = new Book("stale update", "versioned-isbn", "Self");
+        stale.setId(saved.getId());
+        stale.setVersion(saved.getVersion() + 1);
+
+        assertThrows(StaleVersionException.class, () -> bookDao.updateBook(stale));
+    }
+
+    @Test
+    void testPatchBookIncrementsVersion() {
+        Book saved = bookDao.saveNewBook(new Book("versioned book", "versioned-isbn", "Self"));
+
+        bookDao.patchBook(saved.getId(), BookPatch.title("patched versioned book"));
+
+        assertThat(bookDao.findVersionById(saved.getId())).contains(saved.getVersion() + 1);
+    }
+
+    @Test
+    void testPatchBookNotFound() {
+        assertThat(bookDao.patchBook(-1L, BookPatch.title("Patched Book"))).isZero();
+    }
+
     @Test
     void testDeleteBookById() {
         Book book = new Book();
@@ -97,6 +169,90 @@ class BookDaoImplIT {
         assertThrows(ObjectRetrievalFailureException.class, () -> bookDao.getById(saved.getId()));
     }
 
+    @Test
+    void testReassignBooksToAuthor() {
+        int updated = bookDao.reassignBooksToAuthor(7L, 6L);
+
+        assertAll(
+            () -> assertThat(updated).isEqualTo(2),
+            () -> assertThat(bookDao.findBookByTitle("The Google Resume").getAuthorId()).isEqualTo(6L)
+        );
+    }
+
+    @Test
+    void testRenamePublisher() {
+        int updated = bookDao.renamePublisher("CareerCup", "Career Cup");
+
+        assertAll(
+            () -> assertThat(updated).isEqualTo(2),
+            () -> assertThat(bookDao.findBookByTitle("Cracking the Coding Interview").getPublisher()).isEqualTo("Career Cup")
+        );
+    }
+
+    @Test
+    void testDeleteBooksByAuthorId() {
+        long countBefore = bookDao.countAllBooks();
+
+        int deleted = bookDao.deleteBooksByAuthorId(7L);
+
+        assertAll(
+            () -> assertThat(deleted).isEqualTo(2),
+            () -> assertThat(bookDao.countAllBooks()).isEqualTo(countBefore - 2),
+            () -> assertThrows(EntityNotFoundException.class, () -> bookDao.findBookByTitle("The Google Resume"))
+        );
+    }
+
+    @Test
+    void testDeleteBooksByIds() {
+        List<Book> saved = bookDao.saveAllNewBooks(List.of(
+            new Book("bulk delete 1", "isbn-1", "Self"),
+            new Book("bulk delete 2", "isbn-2", "Self")));
+        long countBefore = bookDao.countAllBooks();
+
+        int deleted = bookDao.deleteBooksByIds(saved.stream().map(Book::getId).toList());
+
+        assertAll(
+            () -> assertThat(deleted).isEqualTo(2),
+            () -> assertThat(bookDao.countAllBooks()).isEqualTo(countBefore - 2),
+            () -> assertThat(bookDao.deleteBooksByIds(List.of())).isZero()
+        );
+    }
+
+    @Test
+    void testUpsertBooksByIsbn() {
+        Book existing = bookDao.saveNewBook(new Book("upsert existing", "upsert-isbn-1", "Self"));
+        bookDao.saveNewBook(new Book("upsert unchanged", "upsert-isbn-2", "Self"));
+        long countBefore = bookDao.countAllBooks();
+        Author author = new Author();
+        author.setId(3L);
+        Book changed = new Book("upsert changed", "upsert-isbn-1", "Other");
+        changed.setAuthor(author);
+        List<Book> books = List.of(changed, new Book("upsert unchanged", "upsert-isbn-2", "Self"),
+            new Book("upsert new", "upsert-isbn-3", "Self"));
+
+        UpsertResult first = bookDao.upsertBooksByIsbn(books);
+        UpsertResult second = bookDao.upsertBooksByIsbn(books);
+
+        Book fetched = bookDao.getById(existing.getId());
+        assertAll(
+            () -> assertThat(first).isEqualTo(new UpsertResult(1, 1, 1)),
+            () -> assertThat(second).isEqualTo(new UpsertResult(0, 0, 3)),
+            () -> assertThat(changed.getId()).isEqualTo(existing.getId()),
+            () -> assertThat(books).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates(),
+            () -> assertThat(bookDao.countAllBooks()).isEqualTo(countBefore + 1),
+            () -> assertThat(fetched.getTitle()).isEqualTo("upsert changed"),
+            () -> assertThat(fetched.getPublisher()).isEqualTo("Other"),
+            () -> assertThat(fetched.getAuthorId()).isEqualTo(3L)
+        );
+    }
+
+    @Test
+    void testUpsertBooksByIsbnRequiresIsbn() {
+        List<Book> books = List.of(new Book("upsert without isbn", null, "Self"));
+
+        assertThrows(IllegalArgumentException.class, () -> bookDao.upsertBooksByIsbn(books));
+    }
+
     @Test
     void findAllBooksPage1_SortByTitle() {
         List<Book> books = bookDao.findAllBooksSortByTitle(PageRequest.of(0, 10,
@@ -128,6 +284,31 @@ class BookDaoImplIT {
         );
     }
 
+    @Test
+    void testExportAllBooks() {
+        List<Book> exported = new ArrayList<>();
+
+        long count = bookDao.exportAllBooks(exported::add);
+
+        assertAll(
+            () -> assertThat(count).isEqualTo(bookDao.countAllBooks()),
+            () -> assertThat(exported).hasSize((int) count),
+            () -> assertThat(exported).extracting(Book::getId).doesNotHaveDuplicates(),
+            () -> assertThat(exported).noneMatch(entityManager::contains)
+        );
+    }
+
+    @Test
+    void findAllBookSummaries() {
+        List<BookSummary> books = bookDao.findAllBookSummaries(PageRequest.of(0, 10, Sort.by("title")));
+
+        assertAll(
+            () -> assertThat(books).hasSize(10),
+            () -> assertThat(books).allMatch(book -> book.id() != null && book.title() != null),
+            () -> assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero()
+        );
+    }
+
     @Test
     void findAllBooksPage10_pageable() {
         List<Book> books = bookDao.findAllBooks(PageRequest.of(10, 10));
@@ -177,4 +358,96 @@ class BookDaoImplIT {
             () -> assertThat(books).hasSizeGreaterThan(5)
         );
     }
+
+    @Test
+    void testCountAllBooks() {
+        long count = bookDao.countAllBooks();
+
+        assertThat(count).isEqualTo(bookDao.findAllBooks().size());
+    }
+
+    @Test
+    void findAllBooksKeysetFirstPage() {
+        KeysetPage<Book> page = bookDao.findAllBooks(null, 10);
+
+        assertAll(
+            () -> assertThat(page.content()).hasSize(10),
+            () -> assertThat(page.hasNext()).isTrue(),
+            () -> assertThat(page.content()).extracting(Book::getId).isSorted()
+        );
+    }
+
+    @Test
+    void findAllBooksKeysetFollowsContinuationToken() {
+        KeysetPage<Book> firstPage = bookDao.findAllBooks(null, 10);
+        KeysetPage<Book> secondPage = bookDao.findAllBooks(firstPage.nextToken(), 10);
+
+        assertAll(
+            () -> assertThat(secondPage.content()).hasSize(10),
+            () -> assertThat(secondPage.content().getFirst().getId()).isGreaterThan(firstPage.content().getLast().getId()),
+            () -> assertThat(secondPage.content()).doesNotContainAnyElementsOf(firstPage.content())
+        );
+    }
+
+    @Test
+    void findAllBooksKeysetReadsAllRows() {
+        List<Book> allBooks = bookDao.findAllBooks();
+
+        List<Book> scrolled = new ArrayList<>();
+        KeysetPage<Book> page = bookDao.findAllBooks(null, 7);
+        scrolled.addAll(page.content());
+        while (page.hasNext()) {
+            page = bookDao.findAllBooks(page.nextToken(), 7);
+            scrolled.addAll(page.content());
+        }
+
+        assertThat(scrolled).containsExactlyInAnyOrderElementsOf(allBooks);
+    }
+
+    @Test
+    void findAllBooksSortByTitleKeyset() {
+        List<Book> allBooks = bookDao.findAllBooks();
+
+        List<Book> scrolled = new ArrayList<>();
+        KeysetPage<Book> page = bookDao.findAllBooksSortByTitle(null, 10);
+        scrolled.addAll(page.content());
+        while (page.hasNext()) {
+            page = bookDao.findAllBooksSortByTitle(page.nextToken(), 10);
+            scrolled.addAll(page.content());
+        }
+
+        assertAll(
+            () -> assertThat(scrolled).doesNotHaveDuplicates(),
+            () -> assertThat(scrolled).containsExactlyInAnyOrderElementsOf(allBooks)
+        );
+    }
+
+    @Test
+    void findAllBooksSortByTitleKeysetRejectsIdToken() {
+        String idToken = bookDao.findAllBooks(null, 1).nextToken();
+
+        assertThrows(IllegalArgumentException.class, () -> bookDao.findAllBooksSortByTitle(idToken, 10));
+    }
+
+    @Test
+    void findAllBooksKeysetRejectsInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> bookDao.findAllBooks("not a token", 10));
+    }
+
+    @Test
+    void testDaoCallIsCountedAgainstTheStatementBudget() {
+        bookDao.findBookByTitle("Clean Code");
+
+        assertThat(meterRegistry.get("jdbc.statements.per.scope").tag("scope", DaoStatementBudgetConfiguration.DAO_SCOPE)
+            .summary().count()).isPositive();
+    }
+
+    @Test
+    void findAllBooksKeysetRejectsPageSizeBelowOne() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> bookDao.findAllBooks(null, 0)),
+            () -> assertThrows(IllegalArgumentException.class, () -> bookDao.findAllBooks(null, -1)),
+            () -> assertThrows(IllegalArgumentException.class, () -> bookDao.findAllBooksSortByTitle(null, 0))
+        );
+    }
 }
\ No newline at end of file
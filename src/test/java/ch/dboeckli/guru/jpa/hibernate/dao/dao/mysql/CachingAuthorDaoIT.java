@@ -0,0 +1,83 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.dao.mysql;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorPatch;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.CachingAuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.DaoStatementBudgetConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test_mysql")
+@Import({AuthorDaoImpl.class, DaoStatementBudgetConfiguration.class})
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Slf4j
+class CachingAuthorDaoIT {
+
+    @Autowired
+    AuthorDaoImpl authorDaoImpl;
+
+    MeterRegistry meterRegistry;
+
+    CachingAuthorDao authorDao;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authorDao = new CachingAuthorDao(authorDaoImpl, 100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void testFindAuthorByNameIsCached() {
+        authorDao.findAuthorByName("Craig", "Walls");
+        Author author = authorDao.findAuthorByName("Craig", "Walls");
+
+        assertAll(
+            () -> assertThat(author.getId()).isEqualTo(1L),
+            () -> assertThat(hitRatio("findAuthorByName")).isEqualTo(0.5)
+        );
+    }
+
+    @Test
+    void testGetByIdIsCached() {
+        authorDao.getById(2L);
+        Author author = authorDao.getById(2L);
+
+        assertAll(
+            () -> assertThat(author.getLastName()).isEqualTo("Evans"),
+            () -> assertThat(hitRatio("getById")).isEqualTo(0.5)
+        );
+    }
+
+    @Test
+    void testPatchAuthorEvicts() {
+        Author author = authorDao.findAuthorByName("Craig", "Walls");
+
+        authorDao.patchAuthor(author.getId(), new AuthorPatch(null, "Wall"));
+
+        assertAll(
+            () -> assertThrows(EntityNotFoundException.class, () -> authorDao.findAuthorByName("Craig", "Walls")),
+            () -> assertThat(authorDao.getById(author.getId()).getLastName()).isEqualTo("Wall")
+        );
+    }
+
+    private double hitRatio(String method) {
+        return meterRegistry.get("dao.cache.hit.ratio").tag("method", method).gauge().value();
+    }
+}
@@ -1,5 +1,6 @@
 package ch.dboeckli.guru.jpa.hibernate.dao.health;
 
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +12,10 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import tools.jackson.databind.ObjectMapper;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +32,9 @@ class ActuatorInfoTest {
     @Autowired
     BuildProperties buildProperties;
 
+    @Autowired
+    BookDao bookDao;
+
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Test
@@ -47,14 +54,45 @@ class ActuatorInfoTest {
         mockMvc.perform(get("/actuator/health/readiness"))
             .andExpect(status().isOk())
             .andDo(result -> log.info("Response (pretty):\n{}", pretty(result.getResponse().getContentAsString())))
-            .andExpect(jsonPath("$.status").value("UP"));
+            .andExpect(jsonPath("$.status").value("UP"))
+            .andExpect(jsonPath("$.components.concurrencyLimiter.status").value("UP"));
     }
 
     @Test
     void actuatorPrometheusTest() throws Exception {
         mockMvc.perform(get("/actuator/prometheus"))
             .andExpect(status().isOk())
-            .andDo(result -> log.info("Response:\n{}", result.getResponse().getContentAsString()));
+            .andDo(result -> log.info("Response:\n{}", result.getResponse().getContentAsString()))
+            .andExpect(content().string(containsString("cache_gets_total{cache=\"book\"")))
+            .andExpect(content().string(containsString("dao_cache_hit_ratio{dao=\"bookDao\",method=\"findBookByTitle\"")))
+            .andExpect(content().string(containsString("dao_async_executor_active{name=\"dao-query\"")))
+            .andExpect(content().string(containsString("hibernate_query_plan_cache_hit_ratio")))
+            .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total{result=\"hit\"")))
+            .andExpect(content().string(containsString("logback_async_events_dropped_total{appender=\"ASYNC_CONSOLE\"")))
+            .andExpect(content().string(containsString("dao_concurrency_limit")))
+            .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")));
+    }
+
+    @Test
+    void actuatorPrometheusDaoMethodTimerTest() throws Exception {
+        bookDao.findBookByTitle("Clean Code");
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("dao_method_seconds_bucket{")))
+            .andExpect(content().string(containsString("dao=\"bookDao\"")))
+            .andExpect(content().string(containsString("method=\"findBookByTitle\"")));
+    }
+
+    @Test
+    void actuatorSearchIndexTest() throws Exception {
+        mockMvc.perform(post("/actuator/searchindex"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tookMillis").isNumber());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("search_reindex_seconds_count")));
     }
 
     private String pretty(String body) {
@@ -0,0 +1,80 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.health;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AdaptiveConcurrencyLimiter;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.ConcurrencyLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Status;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrencyLimiterHealthIndicatorTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.9, Duration.ofSeconds(1),
+        Duration.ofMillis(20), 0, Duration.ZERO, () -> 0);
+
+    // a window of zero compares every check with the one before it
+    private final ConcurrencyLimiterHealthIndicator indicator = new ConcurrencyLimiterHealthIndicator(limiter,
+        Duration.ZERO, 0.5, 3);
+
+    @Test
+    void testFewRejectionsKeepThePodReady() throws InterruptedException {
+        reject(2);
+
+        assertThat(indicator.health(false).getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void testRejectionsBelowTheRatioKeepThePodReady() throws InterruptedException {
+        admit(10);
+        reject(3);
+
+        assertThat(indicator.health(false).getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void testRejectedShareTakesThePodOutUntilTheWindowPassed() throws InterruptedException {
+        admit(1);
+        reject(3);
+
+        assertAll(
+            () -> assertThat(indicator.health(false).getStatus()).isEqualTo(Status.OUT_OF_SERVICE),
+            () -> assertThat(indicator.health(false).getStatus()).isEqualTo(Status.UP)
+        );
+    }
+
+    private void admit(int calls) {
+        for (int i = 0; i < calls; i++) {
+            limiter.acquire().close();
+        }
+    }
+
+    private void reject(int calls) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                permit.close();
+            }
+        });
+        held.await();
+        try {
+            for (int i = 0; i < calls; i++) {
+                assertThrows(ConcurrencyLimitExceededException.class, limiter::acquire);
+            }
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowReaderTest {
+
+    @Test
+    void testCsvWithQuotedFieldsAndAnyColumnOrder() throws IOException {
+        String csv = """
+            isbn,title,unknown,authorLastName,authorFirstName,publisher
+            978-1,"Refactoring, Second Edition",x,Fowler,Martin,Addison-Wesley
+            978-2,"The ""Pragmatic"" Programmer",,Thomas,,"Pragmatic
+            Bookshelf"
+
+            978-3,Domain-Driven Design
+            """;
+
+        List<ImportRow> rows = readAll(ImportFormat.CSV, csv);
+
+        assertThat(rows).containsExactly(
+            new ImportRow(2, "Refactoring, Second Edition", "978-1", "Addison-Wesley", "Martin", "Fowler"),
+            new ImportRow(3, "The \"Pragmatic\" Programmer", "978-2", "Pragmatic\nBookshelf", null, "Thomas"),
+            new ImportRow(6, "Domain-Driven Design", "978-3", null, null, null));
+        assertThat(rows.get(2).hasAuthor()).isFalse();
+    }
+
+    @Test
+    void testCsvRejectsMissingTitleColumnAndUnterminatedQuote() {
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "isbn,publisher\n978-1,Manning\n"))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("no title column");
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "title\n\"Spring in Action\n"))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void testNdjsonSkipsBlankLines() throws IOException {
+        String ndjson = """
+            {"title":"Spring in Action","isbn":"978-1","publisher":"Manning","authorFirstName":"Craig","authorLastName":"Walls"}
+
+            {"title":"Effective Java","id":4,"authorId":6}
+            """;
+
+        List<ImportRow> rows = readAll(ImportFormat.NDJSON, ndjson);
+
+        assertThat(rows).containsExactly(
+            new ImportRow(1, "Spring in Action", "978-1", "Manning", "Craig", "Walls"),
+            new ImportRow(3, "Effective Java", null, null, null, null));
+    }
+
+    @Test
+    void testNdjsonRejectsInvalidLine() {
+        assertThatThrownBy(() -> readAll(ImportFormat.NDJSON, "{\"title\":\"Spring in Action\"}\n[1, 2]\n"))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("Line 2");
+        assertThatThrownBy(() -> readAll(ImportFormat.NDJSON, "{\"title\":"))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("Line 1");
+    }
+
+    private static List<ImportRow> readAll(ImportFormat format, String input) throws IOException {
+        RowReader reader = format.open(new StringReader(input), JsonMapper.builder().build());
+        List<ImportRow> rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
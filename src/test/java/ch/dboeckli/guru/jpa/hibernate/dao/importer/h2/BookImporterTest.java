@@ -0,0 +1,225 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.importer.h2;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorPatch;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.BookImporter;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.ImportFailedException;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.ImportFormat;
+import ch.dboeckli.guru.jpa.hibernate.dao.importer.ImportResult;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorName;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.ImportChunkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// every chunk commits in its own transaction
+@Import({BookDaoImpl.class, AuthorDaoImpl.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImporterTest {
+
+    private static final String PUBLISHER = "Importer Test Press";
+    private static final String CSV_HEADER = "title,isbn,publisher,authorFirstName,authorLastName\n";
+
+    @Autowired
+    BookDao bookDao;
+
+    @Autowired
+    AuthorDao authorDao;
+
+    @Autowired
+    AuthorRepository authorRepository;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    ImportChunkRepository importChunkRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectProvider<StatementBudget> statementBudget;
+
+    SimpleMeterRegistry meterRegistry;
+    BookImporter bookImporter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookImporter = new BookImporter(bookDao, authorDao, authorRepository, importChunkRepository, entityManager,
+            transactionManager, statementBudget, JsonMapper.builder().build(), 3, 2, 1, 100, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookDao.deleteBooksByIds(bookRepository.findIdsByPublisher(PUBLISHER));
+        authorRepository.findAuthorByFirstNameAndLastName("Nora", "Quillfeather")
+            .ifPresent(author -> authorDao.deleteAuthorById(author.getId()));
+        authorRepository.findAuthorByFirstNameAndLastName("Nina", "Quillfeather")
+            .ifPresent(author -> authorDao.deleteAuthorById(author.getId()));
+        authorRepository.findAuthorNameByLastNameIsNullAndFirstNameIn(List.of("Plato"))
+            .forEach(author -> authorDao.deleteAuthorById(author.id()));
+        importChunkRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testImportCsv() throws IOException {
+        ImportResult result = bookImporter.importBooks("csv", ImportFormat.CSV, csv(1, 7));
+
+        assertThat(result.rowsRead()).isEqualTo(7);
+        assertThat(result.rowsWritten()).isEqualTo(7);
+        assertThat(result.rowsSkipped()).isZero();
+        assertThat(importChunkRepository.findByIdImportId("csv")).hasSize(3);
+
+        Long newAuthorId = authorRepository.findAuthorByFirstNameAndLastName("Nora", "Quillfeather").orElseThrow().getId();
+        List<Book> books = bookDao.getByIds(bookRepository.findIdsByPublisher(PUBLISHER));
+        assertThat(books).hasSize(7);
+        assertThat(books).filteredOn(book -> book.getTitle().equals("Imported Book 1"))
+            .singleElement().extracting(Book::getAuthorId).isEqualTo(2L);
+        assertThat(books).filteredOn(book -> book.getTitle().equals("Imported Book 2"))
+            .singleElement().extracting(Book::getAuthorId).isEqualTo(newAuthorId);
+        assertThat(books).filteredOn(book -> book.getTitle().equals("Imported Book 4"))
+            .singleElement().extracting(Book::getAuthorId).isNull();
+
+        assertThat(meterRegistry.get("book.import.rows").tag("stage", "written").counter().count()).isEqualTo(7);
+        assertThat(meterRegistry.get("book.import.stage").tag("stage", "write").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("book.import.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void testImportNdjson() throws IOException {
+        String ndjson = """
+            {"title":"Imported Book 1","isbn":"978-9900000001","publisher":"%1$s","authorFirstName":"Eric","authorLastName":"Evans"}
+            {"title":"Imported Book 2","isbn":"978-9900000002","publisher":"%1$s","authorFirstName":"Nora","authorLastName":"Quillfeather"}
+            """.formatted(PUBLISHER);
+
+        ImportResult result = bookImporter.importBooks("ndjson", ImportFormat.NDJSON, input(ndjson));
+
+        assertThat(result.rowsWritten()).isEqualTo(2);
+        assertThat(bookRepository.findIdsByPublisher(PUBLISHER)).hasSize(2);
+    }
+
+    @Test
+    void testResumeAfterMalformedRow() throws IOException {
+        String malformed = CSV_HEADER + rows(1, 4) + ",978-9900000005," + PUBLISHER + ",,\n" + rows(6, 7);
+
+        assertThatThrownBy(() -> bookImporter.importBooks("resume", ImportFormat.CSV, input(malformed)))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("Line 6 has no title");
+        assertThat(importChunkRepository.findByIdImportId("resume")).hasSize(1);
+        assertThat(bookRepository.findIdsByPublisher(PUBLISHER)).hasSize(3);
+
+        ImportResult result = bookImporter.importBooks("resume", ImportFormat.CSV, csv(1, 7));
+
+        assertThat(result.rowsSkipped()).isEqualTo(3);
+        assertThat(result.rowsWritten()).isEqualTo(4);
+        assertThat(bookRepository.findIdsByPublisher(PUBLISHER)).hasSize(7);
+    }
+
+    @Test
+    void testFailedChunkIsRolledBack() {
+        String duplicateIsbn = CSV_HEADER + rows(1, 4) + "Imported Book 5,978-9900000004," + PUBLISHER + ",,\n";
+
+        assertThatThrownBy(() -> bookImporter.importBooks("duplicate", ImportFormat.CSV, input(duplicateIsbn)))
+            .isInstanceOf(ImportFailedException.class)
+            .hasMessageContaining("Chunk 2 starting on line 5");
+        assertThat(importChunkRepository.findByIdImportId("duplicate")).hasSize(1);
+        assertThat(bookRepository.findIdsByPublisher(PUBLISHER)).hasSize(3);
+    }
+
+    @Test
+    void testAuthorWithoutLastNameIsFoundAgain() throws IOException {
+        String first = CSV_HEADER + "Imported Book 1,978-9900000001," + PUBLISHER + ",Plato,\n";
+        String second = CSV_HEADER + "Imported Book 2,978-9900000002," + PUBLISHER + ",Plato,\n";
+
+        bookImporter.importBooks("first", ImportFormat.CSV, input(first));
+        // the second run starts with an empty author cache and has to look the author up
+        bookImporter.importBooks("second", ImportFormat.CSV, input(second));
+
+        List<AuthorName> platos = authorRepository.findAuthorNameByLastNameIsNullAndFirstNameIn(List.of("Plato"));
+        assertThat(platos).hasSize(1);
+        assertThat(bookDao.getByIds(bookRepository.findIdsByPublisher(PUBLISHER)))
+            .extracting(Book::getAuthorId).containsExactly(platos.getFirst().id(), platos.getFirst().id());
+    }
+
+    @Test
+    void testLaterImportDoesNotResolveARenamedAuthorFromAnEarlierRun() throws IOException {
+        bookImporter.importBooks("first", ImportFormat.CSV, csv(1, 3));
+        Long renamedId = authorRepository.findAuthorByFirstNameAndLastName("Nora", "Quillfeather").orElseThrow().getId();
+        authorDao.patchAuthor(renamedId, new AuthorPatch("Nina", null));
+
+        bookImporter.importBooks("second", ImportFormat.CSV, csv(5, 7));
+
+        Long newAuthorId = authorRepository.findAuthorByFirstNameAndLastName("Nora", "Quillfeather").orElseThrow().getId();
+        assertThat(newAuthorId).isNotEqualTo(renamedId);
+        assertThat(bookDao.getByIds(bookRepository.findIdsByPublisher(PUBLISHER)))
+            .filteredOn(book -> book.getTitle().equals("Imported Book 6"))
+            .singleElement().extracting(Book::getAuthorId).isEqualTo(newAuthorId);
+    }
+
+    @Test
+    void testConcurrentImportsCreateANewAuthorOnce() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<ImportResult> first = executor.submit(() -> bookImporter.importBooks("first", ImportFormat.CSV, csv(1, 7)));
+            Future<ImportResult> second = executor.submit(() -> bookImporter.importBooks("second", ImportFormat.CSV, csv(11, 17)));
+
+            assertThat(first.get().rowsWritten()).isEqualTo(7);
+            assertThat(second.get().rowsWritten()).isEqualTo(7);
+        }
+        assertThat(authorRepository.countByLastName("Quillfeather")).isEqualTo(1);
+    }
+
+    // odd rows are by an existing author, every second of the even ones by a new one
+    private static String rows(int from, int to) {
+        StringBuilder rows = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            String author = i % 2 == 1 ? "Eric,Evans" : i % 4 == 2 ? "Nora,Quillfeather" : ",";
+            rows.append("Imported Book %d,978-99000000%02d,%s,%s%n".formatted(i, i, PUBLISHER, author));
+        }
+        return rows.toString();
+    }
+
+    private static InputStream csv(int from, int to) {
+        return input(CSV_HEADER + rows(from, to));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReplicaPoolTest {
+
+    private static final String LAG_QUERY = "select seconds from replication_lag";
+
+    private final DataSource primary = new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:replica-pool-primary;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private HikariDataSource first;
+    private HikariDataSource second;
+
+    @BeforeEach
+    void setUp() {
+        first = replica("replica-pool-first");
+        second = replica("replica-pool-second");
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void testRoundRobinTakesTheReplicasInTurn() {
+        try (ReplicaPool pool = pool(ReplicaSelection.ROUND_ROBIN)) {
+            assertThat(List.of(pool.select(), pool.select(), pool.select())).containsExactly(first, second, first);
+        }
+    }
+
+    @Test
+    void testLeastBusyTakesTheReplicaWithFewerConnectionsInUse() throws Exception {
+        try (ReplicaPool pool = pool(ReplicaSelection.LEAST_BUSY)) {
+            Connection busy = first.getConnection();
+            try {
+                assertThat(pool.select()).isSameAs(second);
+            } finally {
+                busy.close();
+            }
+        }
+    }
+
+    @Test
+    void testLaggingReplicaIsTakenOut() {
+        try (ReplicaPool pool = pool(ReplicaSelection.ROUND_ROBIN)) {
+            setLag(first, 60);
+            pool.checkHealth();
+
+            assertThat(List.of(pool.select(), pool.select())).containsOnly(second);
+        }
+    }
+
+    @Test
+    void testPrimaryIsUsedWhileNoReplicaIsHealthy() {
+        try (ReplicaPool pool = pool(ReplicaSelection.ROUND_ROBIN)) {
+            setLag(first, 60);
+            setLag(second, 60);
+            pool.checkHealth();
+            assertThat(pool.select()).isSameAs(primary);
+
+            setLag(second, 0);
+            pool.checkHealth();
+            assertAll(
+                () -> assertThat(pool.select()).isSameAs(second),
+                () -> assertThat(pool.select()).isSameAs(second)
+            );
+        }
+    }
+
+    @Test
+    void testUnreachableReplicaDoesNotHoldUpTheStartAndIsNotUsed() {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setPoolName("replica-pool-unreachable");
+        unreachable.setJdbcUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        unreachable.setInitializationFailTimeout(-1);
+        unreachable.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+
+        ReplicaPool pool = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+            new ReplicaPool(List.of(unreachable), primary, ReplicaSelection.ROUND_ROBIN, null, Duration.ofSeconds(10), Duration.ofHours(1)));
+        try (pool) {
+            assertAll(
+                () -> assertThat(pool.healthyReplicas()).isZero(),
+                () -> assertThat(pool.select()).isSameAs(primary)
+            );
+        }
+    }
+
+    // the first health check runs in the background, the tests run it themselves to know when it is done
+    private ReplicaPool pool(ReplicaSelection selection) {
+        ReplicaPool pool = new ReplicaPool(List.of(first, second), primary, selection, LAG_QUERY, Duration.ofSeconds(10), Duration.ofHours(1));
+        pool.checkHealth();
+        return pool;
+    }
+
+    private static HikariDataSource replica(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists replication_lag (seconds bigint)");
+        jdbcTemplate.execute("delete from replication_lag");
+        jdbcTemplate.execute("insert into replication_lag values (0)");
+        return dataSource;
+    }
+
+    private static void setLag(DataSource replica, long seconds) {
+        new JdbcTemplate(replica).update("update replication_lag set seconds = ?", seconds);
+    }
+}
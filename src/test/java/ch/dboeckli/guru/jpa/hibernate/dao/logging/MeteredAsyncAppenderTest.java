@@ -0,0 +1,143 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MeteredAsyncAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void testQueuedEventsAreFlushed() {
+        ListAppender<ILoggingEvent> target = new ListAppender<>();
+        MeteredAsyncAppender appender = start(target, 16, 0);
+        Logger logger = logger(appender);
+
+        for (int i = 0; i < 10; i++) {
+            logger.info("event {}", i);
+        }
+        appender.stop();
+
+        assertAll(
+            () -> assertThat(target.list).hasSize(10),
+            () -> assertThat(appender.getQueuedCount()).isEqualTo(10),
+            () -> assertThat(appender.getFlushedCount()).isEqualTo(10),
+            () -> assertThat(appender.getDroppedCount()).isZero()
+        );
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingAppender target = new BlockingAppender(release);
+        MeteredAsyncAppender appender = start(target, 2, 0);
+        Logger logger = logger(appender);
+
+        // the queued count is only exact while the worker does not take events between the capacity check and the offer
+        logger.warn("event 0");
+        target.appending.await();
+        for (int i = 1; i < 20; i++) {
+            logger.warn("event {}", i);
+        }
+        release.countDown();
+        appender.stop();
+
+        assertAll(
+            () -> assertThat(appender.getDroppedCount()).isPositive(),
+            () -> assertThat(appender.getQueuedCount() + appender.getDroppedCount()).isEqualTo(20),
+            () -> assertThat(appender.getFlushedCount()).isEqualTo(appender.getQueuedCount())
+        );
+    }
+
+    @Test
+    void testInfoIsDiscardedUnderPressureButWarnIsKept() {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingAppender target = new BlockingAppender(release);
+        // the remaining capacity is always below a threshold above the queue size
+        MeteredAsyncAppender appender = start(target, 4, 5);
+        Logger logger = logger(appender);
+
+        logger.info("discarded");
+        logger.warn("kept");
+        release.countDown();
+        appender.stop();
+
+        assertAll(
+            () -> assertThat(appender.getQueuedCount()).isEqualTo(1),
+            () -> assertThat(appender.getDroppedCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void testCountersAreBound() {
+        MeteredAsyncAppender appender = start(new ListAppender<>(), 16, 0);
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        AsyncAppenderMetrics metrics = new AsyncAppenderMetrics();
+        metrics.bindTo(registry, loggerContext);
+
+        assertThat(registry.get("logback.async.events.dropped").tag("appender", "async").functionCounter()).isNotNull();
+        appender.stop();
+    }
+
+    private MeteredAsyncAppender start(AppenderBase<ILoggingEvent> target, int queueSize, int discardingThreshold) {
+        target.setContext(loggerContext);
+        target.start();
+        MeteredAsyncAppender appender = new MeteredAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("async");
+        appender.setQueueSize(queueSize);
+        appender.setDiscardingThreshold(discardingThreshold);
+        appender.setNeverBlock(true);
+        appender.addAppender(target);
+        appender.start();
+        return appender;
+    }
+
+    private Logger logger(MeteredAsyncAppender appender) {
+        Logger logger = loggerContext.getLogger(MeteredAsyncAppenderTest.class);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch release;
+        private final CountDownLatch appending = new CountDownLatch(1);
+
+        BlockingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent eventObject) {
+            appending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
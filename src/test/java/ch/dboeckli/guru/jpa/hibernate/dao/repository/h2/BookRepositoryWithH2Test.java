@@ -9,8 +9,6 @@ import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
 import org.springframework.dao.EmptyResultDataAccessException;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -50,14 +48,6 @@ class BookRepositoryWithH2Test {
         assertThat(count.get()).isGreaterThan(0);
     }
 
-    @Test
-    void testQueryByTitleAsync() throws ExecutionException, InterruptedException {
-        Future<Book> booksFuture = bookRepository.queryByTitle("Clean Code");
-        Book book = booksFuture.get();
-
-        assertNotNull(book);
-    }
-
     @Test
     void testFindBookByTitleWithQuery() {
         Book book = bookRepository.findBookByTitleWithQuery("Clean Code");
@@ -11,8 +11,6 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -53,14 +51,6 @@ class BookRepositoryWithMysqlIT {
         assertThat(count.get()).isGreaterThan(0);
     }
 
-    @Test
-    void testQueryByTitleAsync() throws ExecutionException, InterruptedException {
-        Future<Book> booksFuture = bookRepository.queryByTitle("Clean Code");
-        Book book = booksFuture.get();
-
-        assertNotNull(book);
-    }
-
     @Test
     void testFindBookByTitleWithQuery() {
         Book book = bookRepository.findBookByTitleWithQuery("Clean Code");
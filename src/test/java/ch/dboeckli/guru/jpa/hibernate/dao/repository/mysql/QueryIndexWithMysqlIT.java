@@ -0,0 +1,106 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.repository.mysql;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDaoImpl;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.AuthorRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.StatementCaptureConfiguration;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.StatementCaptureConfiguration.CapturedStatement;
+import ch.dboeckli.guru.jpa.hibernate.dao.test.config.StatementCaptureConfiguration.CapturedStatements;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test_mysql")
+@DirtiesContext
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // to assure that it is not replaced with h2
+@Import({BookDaoImpl.class, StatementCaptureConfiguration.class})
+@Slf4j
+class QueryIndexWithMysqlIT {
+
+    // name of the column with the chosen index in the result of a traditional EXPLAIN
+    private static final String EXPLAIN_KEY_COLUMN = "key";
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    AuthorRepository authorRepository;
+
+    @Autowired
+    BookDao bookDao;
+
+    @Autowired
+    CapturedStatements capturedStatements;
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+        findBookByTitle                   | book_title_idx
+        jpaNamed                          | book_title_idx
+        findBookByTitleWithNativeQuery    | book_title_idx
+        upsertBooksByIsbn                 | book_isbn_uk
+        findIdsByAuthorId                 | book_author_id_idx
+        deleteAllByAuthorIdInBulk         | book_author_id_idx
+        findAuthorByFirstNameAndLastName  | author_last_name_first_name_idx
+        findAuthorSliceByLastName         | author_last_name_first_name_idx
+        """)
+    void testQueryUsesIndex(String query, String index) {
+        CapturedStatement statement = generatedStatement(query);
+        String key = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                statement.bindTo(explain);
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(EXPLAIN_KEY_COLUMN);
+                }
+            }
+        });
+        log.info("Plan for {}: key={}", query, key);
+
+        assertThat(key).isEqualTo(index);
+    }
+
+    // the first statement the repository sends, with the caches out of the way so it really reaches the database
+    private CapturedStatement generatedStatement(String query) {
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictAllRegions();
+        entityManager.clear();
+        capturedStatements.clear();
+        switch (query) {
+            case "findBookByTitle" -> bookRepository.findBookByTitle("Clean Code");
+            case "jpaNamed" -> bookRepository.jpaNamed("Clean Code");
+            case "findBookByTitleWithNativeQuery" -> bookRepository.findBookByTitleWithNativeQuery("Clean Code");
+            case "upsertBooksByIsbn" -> bookDao.upsertBooksByIsbn(List.of(new Book("Clean Code", "978-0134494166", "Addison Wesley")));
+            case "findIdsByAuthorId" -> bookRepository.findIdsByAuthorId(3L);
+            case "deleteAllByAuthorIdInBulk" -> bookRepository.deleteAllByAuthorIdInBulk(3L);
+            case "findAuthorByFirstNameAndLastName" -> authorRepository.findAuthorByFirstNameAndLastName("Craig", "Walls");
+            case "findAuthorSliceByLastName" ->
+                authorRepository.findAuthorSliceByLastName("Smith", PageRequest.of(0, 10, Sort.by("firstName")));
+            default -> throw new IllegalArgumentException(query);
+        }
+        List<CapturedStatement> statements = capturedStatements.statements();
+        assertThat(statements).as("statements of %s", query).isNotEmpty();
+        return statements.getFirst();
+    }
+}
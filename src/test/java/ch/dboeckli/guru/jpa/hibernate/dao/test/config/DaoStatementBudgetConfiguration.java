@@ -0,0 +1,64 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.test.config;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.config.SqlMonitoringConfiguration;
+import ch.dboeckli.guru.jpa.hibernate.dao.jdbc.StatementBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Holds every DAO call of a {@code @DataJpaTest} to the statement budget of {@code application.yaml}, which fails the
+ * test on an N+1 select. The whole test method runs in one transaction, so each outermost DAO call gets a scope of its
+ * own instead of sharing the transaction scope with the rest of the test.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@EnableAspectJAutoProxy(proxyTargetClass = true)
+@Import(SqlMonitoringConfiguration.class)
+public class DaoStatementBudgetConfiguration {
+
+    public static final String DAO_SCOPE = "dao";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public DaoCallBudgetAspect daoCallBudgetAspect(StatementBudget statementBudget) {
+        return new DaoCallBudgetAspect(statementBudget);
+    }
+
+    @Aspect
+    public static class DaoCallBudgetAspect {
+
+        private final ThreadLocal<Boolean> inDaoCall = ThreadLocal.withInitial(() -> false);
+        private final StatementBudget statementBudget;
+
+        DaoCallBudgetAspect(StatementBudget statementBudget) {
+            this.statementBudget = statementBudget;
+        }
+
+        @Around("execution(public * ch.dboeckli.guru.jpa.hibernate.dao.dao.*DaoImpl.*(..))")
+        public Object budget(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (inDaoCall.get()) {
+                return joinPoint.proceed();
+            }
+            StatementBudget.Scope scope = statementBudget.openSeparate(DAO_SCOPE, joinPoint.getSignature().toShortString());
+            inDaoCall.set(true);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                inDaoCall.set(false);
+                scope.close();
+            }
+        }
+    }
+}
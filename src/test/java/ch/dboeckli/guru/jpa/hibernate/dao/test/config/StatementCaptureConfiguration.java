@@ -0,0 +1,90 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.test.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the statements Hibernate sends to the database together with their bind parameters, so a test can look at
+ * the SQL the repositories really generate.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCaptureConfiguration {
+
+    @Bean
+    public CapturedStatements capturedStatements() {
+        return new CapturedStatements();
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCaptureDataSourcePostProcessor(ObjectProvider<CapturedStatements> capturedStatements) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource proxyDataSource) {
+                    proxyDataSource.getProxyConfig().getQueryListener().addListener(capturedStatements.getObject());
+                    return bean;
+                }
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(capturedStatements.getObject()).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    public static class CapturedStatements implements QueryExecutionListener {
+
+        private final List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                    ? List.of() : List.copyOf(queryInfo.getParametersList().getFirst());
+                statements.add(new CapturedStatement(queryInfo.getQuery(), parameters));
+            }
+        }
+
+        public void clear() {
+            statements.clear();
+        }
+
+        public List<CapturedStatement> statements() {
+            return List.copyOf(statements);
+        }
+    }
+
+    public record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+
+        /**
+         * Binds the recorded parameters to a statement prepared from this one, e.g. its {@code EXPLAIN}.
+         */
+        public void bindTo(PreparedStatement preparedStatement) throws SQLException {
+            for (ParameterSetOperation parameter : parameters) {
+                try {
+                    parameter.getMethod().invoke(preparedStatement, parameter.getArgs());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Could not bind " + parameter.getMethod().getName(), e);
+                }
+            }
+        }
+    }
+}
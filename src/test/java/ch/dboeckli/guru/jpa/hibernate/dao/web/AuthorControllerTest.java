@@ -0,0 +1,95 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.AuthorDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Author;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.AuthorController.AUTHOR_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.AuthorController.AUTOCOMPLETE_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.AuthorController.BATCH_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.AuthorController.ID_PATH;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthorControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    AuthorDao authorDao;
+
+    @Test
+    void testAutocompleteFromLoadedIndex() throws Exception {
+        mockMvc.perform(get(AUTHOR_PATH + AUTOCOMPLETE_PATH).param("prefix", "mar"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].lastName", contains("Smith", "Martin", "Fowler")));
+    }
+
+    @Test
+    void testAutocompleteFollowsDaoChanges() throws Exception {
+        Author author = new Author();
+        author.setFirstName("Quentin");
+        author.setLastName("Quayle");
+        Author saved = authorDao.saveNewAuthor(author);
+
+        mockMvc.perform(get(AUTHOR_PATH + AUTOCOMPLETE_PATH).param("prefix", "quay"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].id", contains(saved.getId().intValue())));
+
+        authorDao.deleteAuthorById(saved.getId());
+
+        mockMvc.perform(get(AUTHOR_PATH + AUTOCOMPLETE_PATH).param("prefix", "quay"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void testGetAuthors() throws Exception {
+        mockMvc.perform(post(AUTHOR_PATH + BATCH_PATH).contentType(MediaType.APPLICATION_JSON).content("[4, 3, 9999]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.found[*].lastName", contains("Fowler", "Martin")))
+            .andExpect(jsonPath("$.missingIds", contains(9999)));
+    }
+
+    @Test
+    void testGetAndUpdateAuthorWithETag() throws Exception {
+        Author author = new Author();
+        author.setFirstName("Ursula");
+        author.setLastName("Upton");
+        Author saved = authorDao.saveNewAuthor(author);
+        String body = "{\"firstName\":\"Ursula K.\",\"lastName\":\"Upton\"}";
+        try {
+            mockMvc.perform(get(AUTHOR_PATH + ID_PATH, saved.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+            mockMvc.perform(put(AUTHOR_PATH + ID_PATH, saved.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.firstName").value("Ursula K."));
+            mockMvc.perform(put(AUTHOR_PATH + ID_PATH, saved.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(get(AUTHOR_PATH + ID_PATH, saved.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.firstName").value("Ursula K."));
+        } finally {
+            authorDao.deleteAuthorById(saved.getId());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.dao.BookDao;
+import ch.dboeckli.guru.jpa.hibernate.dao.domain.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookController.BATCH_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookController.ID_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookExportController.BOOK_PATH;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BookDao bookDao;
+
+    @Test
+    void testGetBooks() throws Exception {
+        mockMvc.perform(post(BOOK_PATH + BATCH_PATH).contentType(MediaType.APPLICATION_JSON).content("[5, 999, 1]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.found[*].id", contains(5, 1)))
+            .andExpect(jsonPath("$.found[0].title").value("Clean Code"))
+            .andExpect(jsonPath("$.found[0].authorId").value(3))
+            .andExpect(jsonPath("$.missingIds", contains(999)));
+    }
+
+    @Test
+    void testGetBooksRejectsEmptyAndTooManyIds() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, BatchResult.MAX_IDS + 1).mapToObj(String::valueOf)
+            .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post(BOOK_PATH + BATCH_PATH).contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post(BOOK_PATH + BATCH_PATH).contentType(MediaType.APPLICATION_JSON).content(tooMany))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBookWithETag() throws Exception {
+        Book book = bookDao.saveNewBook(new Book("Conditional Requests", "978-9800000001", "Self"));
+        try {
+            mockMvc.perform(get(BOOK_PATH + ID_PATH, book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.title").value("Conditional Requests"));
+            mockMvc.perform(get(BOOK_PATH + ID_PATH, book.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+            mockMvc.perform(get(BOOK_PATH + ID_PATH, 999).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+        } finally {
+            bookDao.deleteBookById(book.getId());
+        }
+    }
+
+    @Test
+    void testUpdateBookHonoursIfMatch() throws Exception {
+        Book book = bookDao.saveNewBook(new Book("Lost Updates", "978-9800000002", "Self"));
+        String body = "{\"title\":\"No Lost Updates\",\"isbn\":\"978-9800000002\",\"publisher\":\"Self\",\"authorId\":3}";
+        try {
+            mockMvc.perform(put(BOOK_PATH + ID_PATH, book.getId()).header(HttpHeaders.IF_MATCH, "\"7\"")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(put(BOOK_PATH + ID_PATH, book.getId()).header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(put(BOOK_PATH + ID_PATH, book.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.title").value("No Lost Updates"))
+                .andExpect(jsonPath("$.authorId").value(3));
+            mockMvc.perform(get(BOOK_PATH + ID_PATH, book.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+            mockMvc.perform(put(BOOK_PATH + ID_PATH, 999).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound());
+        } finally {
+            bookDao.deleteBookById(book.getId());
+        }
+    }
+}
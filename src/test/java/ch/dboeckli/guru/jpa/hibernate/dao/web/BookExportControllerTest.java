@@ -0,0 +1,58 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import ch.dboeckli.guru.jpa.hibernate.dao.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookExportController.BOOK_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.BookExportController.EXPORT_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Slf4j
+class BookExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void testExportBooks() throws Exception {
+        MvcResult started = mockMvc.perform(get(BOOK_PATH + EXPORT_PATH).accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = body.lines().map(OBJECT_MAPPER::readTree).toList();
+        assertAll(
+            () -> assertThat(body).endsWith("\n"),
+            () -> assertThat(lines).hasSize((int) bookRepository.count()),
+            () -> assertThat(lines).allMatch(line -> line.hasNonNull("id") && line.hasNonNull("title"))
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package ch.dboeckli.guru.jpa.hibernate.dao.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.ImportController.BOOKS_PATH;
+import static ch.dboeckli.guru.jpa.hibernate.dao.web.ImportController.IMPORT_PATH;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void testImportBooksRejectsInvalidImportId() throws Exception {
+        mockMvc.perform(post(IMPORT_PATH + BOOKS_PATH).param("importId", "../books")
+                .contentType(MediaType.TEXT_PLAIN).content("title\nSpring in Action\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportBooksRejectsMalformedInput() throws Exception {
+        mockMvc.perform(post(IMPORT_PATH + BOOKS_PATH).param("importId", "malformed").param("format", "CSV")
+                .contentType(MediaType.TEXT_PLAIN).content("isbn,publisher\n978-1,Manning\n"))
+            .andExpect(status().isUnprocessableContent());
+        mockMvc.perform(post(IMPORT_PATH + BOOKS_PATH).param("importId", "malformed").param("format", "NDJSON")
+                .contentType(MediaType.APPLICATION_NDJSON).content("not json\n"))
+            .andExpect(status().isUnprocessableContent());
+    }
+}